@@ -0,0 +1,74 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Fixed input for the microbenchmarks in org.checkerframework.benchmarks. The benchmarks look up
+ * the members below by name, so keep the names in sync with the benchmark classes.
+ */
+class BenchmarkCorpus {
+
+    Map<String, List<Map<String, Set<Integer>>>> deepSuper;
+    HashMap<String, List<Map<String, Set<Integer>>>> deepSub;
+
+    Map<
+                    ? extends CharSequence,
+                    ? extends List<? extends Map<String, ? extends Collection<Integer>>>>
+            wildcardSuper;
+
+    String field1;
+    String field2;
+    Object field3;
+    int counter;
+
+    void storeA(String s, Object o) {
+        field1 = s;
+        field2 = s;
+        if (o != null) {
+            field3 = o;
+        }
+        counter++;
+    }
+
+    void storeB(String s) {
+        field1 = "constant";
+        String local = s;
+        for (int i = 0; i < 10; i++) {
+            local = local + i;
+        }
+        field2 = local;
+    }
+
+    List<String> controlFlow(List<String> input, Map<String, Integer> counts) {
+        List<String> result = new ArrayList<>();
+        for (String s : input) {
+            if (s == null || s.isEmpty()) {
+                continue;
+            }
+            Integer c = counts.get(s);
+            switch (s.length()) {
+                case 1:
+                    result.add(s);
+                    break;
+                case 2:
+                    counts.put(s, c == null ? 1 : c + 1);
+                    break;
+                default:
+                    try {
+                        result.add(s.substring(0, Integer.parseInt(s.substring(1))));
+                    } catch (NumberFormatException e) {
+                        result.add(s.trim());
+                    } finally {
+                        counter++;
+                    }
+            }
+        }
+        while (result.size() > 100) {
+            result.remove(result.size() - 1);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,32 @@
+package org.checkerframework.benchmarks;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Superclass of the microbenchmarks. Before each trial it type-checks the benchmark corpus with the
+ * checker named by {@link #checker}, so that subclasses can look up the trees, types, and stores
+ * they exercise in {@link #env}.
+ */
+@State(Scope.Benchmark)
+public abstract class AbstractCheckerBenchmark {
+
+    /** The checker whose type factory and qualifier hierarchy are exercised. */
+    @Param({"nullness", "index", "lock"})
+    public String checker;
+
+    /** The type-checked corpus. */
+    protected CheckerEnvironment env;
+
+    @Setup(Level.Trial)
+    public void setUpEnvironment() {
+        env = CheckerEnvironment.forCorpus(checker);
+        setUp();
+    }
+
+    /** Computes the inputs of the benchmark methods from {@link #env}. */
+    protected abstract void setUp();
+}
@@ -0,0 +1,43 @@
+package org.checkerframework.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.checkerframework.framework.type.AnnotatedTypeMirror;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/** Benchmarks {@link AnnotatedTypeMirror#deepCopy()} on the field types of the corpus. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AnnotatedTypeMirrorBenchmark extends AbstractCheckerBenchmark {
+
+    private AnnotatedTypeMirror simple;
+    private AnnotatedTypeMirror deepGenerics;
+    private AnnotatedTypeMirror deepWildcards;
+
+    @Override
+    protected void setUp() {
+        simple = env.getFieldType("field1");
+        deepGenerics = env.getFieldType("deepSuper");
+        deepWildcards = env.getFieldType("wildcardSuper");
+    }
+
+    @Benchmark
+    public AnnotatedTypeMirror deepCopySimple() {
+        return simple.deepCopy();
+    }
+
+    @Benchmark
+    public AnnotatedTypeMirror deepCopyDeepGenerics() {
+        return deepGenerics.deepCopy();
+    }
+
+    @Benchmark
+    public AnnotatedTypeMirror deepCopyDeepWildcards() {
+        return deepWildcards.deepCopy();
+    }
+}
@@ -0,0 +1,60 @@
+package org.checkerframework.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import javax.lang.model.element.AnnotationMirror;
+import org.checkerframework.framework.type.QualifierHierarchy;
+import org.checkerframework.framework.util.AnnotationBuilder;
+import org.checkerframework.javacutil.AnnotationUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/** Benchmarks {@link AnnotationUtils#areSame(AnnotationMirror, AnnotationMirror)}. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AnnotationUtilsBenchmark extends AbstractCheckerBenchmark {
+
+    private AnnotationMirror top;
+    /** An annotation that is equal to, but not the same object as, {@link #top}. */
+    private AnnotationMirror topCopy;
+
+    private AnnotationMirror bottom;
+
+    private AnnotationMirror withValues;
+    /** An annotation that is equal to, but not the same object as, {@link #withValues}. */
+    private AnnotationMirror withValuesCopy;
+
+    @Override
+    protected void setUp() {
+        QualifierHierarchy qualHierarchy = env.factory.getQualifierHierarchy();
+        top = qualHierarchy.getTopAnnotations().iterator().next();
+        topCopy = new AnnotationBuilder(env.processingEnv, top).build();
+        bottom = qualHierarchy.getBottomAnnotation(top);
+
+        String[] values = {"unchecked", "rawtypes", "nullness", "index", "lock"};
+        withValues =
+                new AnnotationBuilder(env.processingEnv, SuppressWarnings.class)
+                        .setValue("value", values)
+                        .build();
+        withValuesCopy = new AnnotationBuilder(env.processingEnv, withValues).build();
+    }
+
+    @Benchmark
+    public boolean areSameEqual() {
+        return AnnotationUtils.areSame(top, topCopy);
+    }
+
+    @Benchmark
+    public boolean areSameDifferent() {
+        return AnnotationUtils.areSame(top, bottom);
+    }
+
+    @Benchmark
+    public boolean areSameWithValues() {
+        return AnnotationUtils.areSame(withValues, withValuesCopy);
+    }
+}
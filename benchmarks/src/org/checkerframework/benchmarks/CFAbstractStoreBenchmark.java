@@ -0,0 +1,75 @@
+package org.checkerframework.benchmarks;
+
+import com.sun.source.tree.MethodTree;
+import java.util.concurrent.TimeUnit;
+import org.checkerframework.framework.flow.CFAbstractAnalysis;
+import org.checkerframework.framework.flow.CFAbstractStore;
+import org.checkerframework.framework.flow.CFAbstractTransfer;
+import org.checkerframework.framework.flow.CFAbstractValue;
+import org.checkerframework.framework.type.GenericAnnotatedTypeFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks {@link CFAbstractStore#leastUpperBound(CFAbstractStore)} on the regular exit stores of
+ * two methods of the corpus that refine the same fields.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CFAbstractStoreBenchmark extends AbstractCheckerBenchmark {
+
+    private StorePair<?> stores;
+
+    @Override
+    protected void setUp() {
+        stores = exitStores(env.factory, env.getMethod("storeA"), env.getMethod("storeB"));
+    }
+
+    @Benchmark
+    public Object leastUpperBound() {
+        return stores.leastUpperBound();
+    }
+
+    @Benchmark
+    public Object leastUpperBoundSelf() {
+        return stores.leastUpperBoundSelf();
+    }
+
+    private static <
+                    Value extends CFAbstractValue<Value>,
+                    Store extends CFAbstractStore<Value, Store>,
+                    TransferFunction extends CFAbstractTransfer<Value, Store, TransferFunction>,
+                    FlowAnalysis extends CFAbstractAnalysis<Value, Store, TransferFunction>>
+            StorePair<Store> exitStores(
+                    GenericAnnotatedTypeFactory<Value, Store, TransferFunction, FlowAnalysis>
+                            factory,
+                    MethodTree first,
+                    MethodTree second) {
+        return new StorePair<Store>(
+                factory.getRegularExitStore(first), factory.getRegularExitStore(second));
+    }
+
+    /** Two stores of the same type, so that their least upper bound can be taken. */
+    private static class StorePair<Store extends CFAbstractStore<?, Store>> {
+        private final Store first;
+        private final Store second;
+
+        StorePair(Store first, Store second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        Store leastUpperBound() {
+            return first.leastUpperBound(second);
+        }
+
+        Store leastUpperBoundSelf() {
+            return first.leastUpperBound(first);
+        }
+    }
+}
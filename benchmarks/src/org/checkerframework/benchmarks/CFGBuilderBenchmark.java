@@ -0,0 +1,41 @@
+package org.checkerframework.benchmarks;
+
+import com.sun.source.tree.MethodTree;
+import java.util.concurrent.TimeUnit;
+import org.checkerframework.dataflow.cfg.CFGBuilder;
+import org.checkerframework.dataflow.cfg.ControlFlowGraph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks {@link CFGBuilder#build} on a straight-line method and on a method with loops, a
+ * switch, and exception handlers. The CFG does not depend on the checker, so only one is used.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CFGBuilderBenchmark extends AbstractCheckerBenchmark {
+
+    private MethodTree straightLine;
+    private MethodTree controlFlow;
+
+    @Override
+    protected void setUp() {
+        straightLine = env.getMethod("storeA");
+        controlFlow = env.getMethod("controlFlow");
+    }
+
+    @Benchmark
+    public ControlFlowGraph buildStraightLine() {
+        return CFGBuilder.build(env.root, env.processingEnv, straightLine, env.classTree);
+    }
+
+    @Benchmark
+    public ControlFlowGraph buildControlFlow() {
+        return CFGBuilder.build(env.root, env.processingEnv, controlFlow, env.classTree);
+    }
+}
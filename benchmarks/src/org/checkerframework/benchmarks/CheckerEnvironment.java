@@ -0,0 +1,173 @@
+package org.checkerframework.benchmarks;
+
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.MethodTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.tree.VariableTree;
+import com.sun.source.util.JavacTask;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticListener;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import org.checkerframework.checker.index.IndexChecker;
+import org.checkerframework.checker.lock.LockChecker;
+import org.checkerframework.checker.nullness.NullnessChecker;
+import org.checkerframework.common.basetype.BaseTypeChecker;
+import org.checkerframework.framework.type.AnnotatedTypeMirror;
+import org.checkerframework.framework.type.GenericAnnotatedTypeFactory;
+import org.checkerframework.javacutil.ErrorReporter;
+import org.checkerframework.javacutil.TreeUtils;
+
+/**
+ * Type-checks a source file with a checker and keeps the resulting javac and Checker Framework
+ * state alive, so that benchmarks can exercise individual framework operations on the types, trees,
+ * and stores of a real compilation.
+ */
+public class CheckerEnvironment {
+
+    /** The system property that overrides the location of the microbenchmark corpus. */
+    public static final String CORPUS_PROPERTY = "checkerframework.benchmarks.corpus";
+
+    /** The system property that overrides the location of the checker test directories. */
+    public static final String CHECKER_TESTS_PROPERTY = "checkerframework.benchmarks.checkertests";
+
+    /** A diagnostic listener that discards all diagnostics. */
+    public static final DiagnosticListener<JavaFileObject> IGNORE_DIAGNOSTICS =
+            new DiagnosticListener<JavaFileObject>() {
+                @Override
+                public void report(Diagnostic<? extends JavaFileObject> diagnostic) {}
+            };
+
+    /** The checker that type-checked {@link #root}. */
+    public final BaseTypeChecker checker;
+
+    /** The type factory of {@link #checker}, still set up for {@link #root}. */
+    public final GenericAnnotatedTypeFactory<?, ?, ?, ?> factory;
+
+    /** The processing environment of the compilation. */
+    public final ProcessingEnvironment processingEnv;
+
+    /** The type-checked compilation unit. */
+    public final CompilationUnitTree root;
+
+    /** The first top-level class of {@link #root}. */
+    public final ClassTree classTree;
+
+    private CheckerEnvironment(BaseTypeChecker checker, CompilationUnitTree root) {
+        this.checker = checker;
+        this.factory = checker.getTypeFactory();
+        this.processingEnv = checker.getProcessingEnvironment();
+        this.root = root;
+        this.classTree = (ClassTree) root.getTypeDecls().get(0);
+    }
+
+    /**
+     * Type-checks the microbenchmark corpus with the given checker.
+     *
+     * @param checkerName one of the names accepted by {@link #checkerClass(String)}
+     */
+    public static CheckerEnvironment forCorpus(String checkerName) {
+        File corpus = new File(System.getProperty(CORPUS_PROPERTY, "corpus/BenchmarkCorpus.java"));
+        return create(checkerClass(checkerName), corpus);
+    }
+
+    /** Type-checks {@code source} with a new instance of {@code checkerClass}. */
+    public static CheckerEnvironment create(
+            Class<? extends BaseTypeChecker> checkerClass, File source) {
+        BaseTypeChecker checker;
+        try {
+            checker = checkerClass.newInstance();
+        } catch (InstantiationException | IllegalAccessException e) {
+            ErrorReporter.errorAbort("Could not instantiate " + checkerClass, e);
+            return null; // dead code
+        }
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null);
+        JavacTask task =
+                (JavacTask)
+                        compiler.getTask(
+                                null,
+                                fileManager,
+                                IGNORE_DIAGNOSTICS,
+                                compilerOptions(),
+                                null,
+                                fileManager.getJavaFileObjects(source));
+        task.setProcessors(Collections.singleton(checker));
+        try {
+            CompilationUnitTree root = task.parse().iterator().next();
+            task.analyze();
+            return new CheckerEnvironment(checker, root);
+        } catch (IOException e) {
+            ErrorReporter.errorAbort("Could not type-check " + source, e);
+            return null; // dead code
+        }
+    }
+
+    /**
+     * Returns the javac options used by all benchmark compilations. The class path of the running
+     * JVM is passed on, so the qualifiers of the checkers are available to the compiled sources.
+     */
+    public static List<String> compilerOptions() {
+        List<String> options = new ArrayList<>();
+        options.add("-classpath");
+        options.add(System.getProperty("java.class.path"));
+        options.add("-proc:only");
+        options.add("-Anomsgtext");
+        return options;
+    }
+
+    /** Maps a short checker name, as used by the benchmark parameters, to its checker class. */
+    public static Class<? extends BaseTypeChecker> checkerClass(String checkerName) {
+        switch (checkerName) {
+            case "nullness":
+                return NullnessChecker.class;
+            case "index":
+                return IndexChecker.class;
+            case "lock":
+                return LockChecker.class;
+            default:
+                ErrorReporter.errorAbort("Unknown checker: " + checkerName);
+                return null; // dead code
+        }
+    }
+
+    /** Returns the directory that contains the checker test directories, such as "nullness". */
+    public static File checkerTestsDirectory() {
+        return new File(System.getProperty(CHECKER_TESTS_PROPERTY, "../checker/tests"));
+    }
+
+    /** Returns the method with the given name in {@link #classTree}. */
+    public MethodTree getMethod(String name) {
+        for (Tree member : classTree.getMembers()) {
+            if (member.getKind() == Tree.Kind.METHOD
+                    && ((MethodTree) member).getName().contentEquals(name)) {
+                return (MethodTree) member;
+            }
+        }
+        ErrorReporter.errorAbort("No method " + name + " in " + classTree.getSimpleName());
+        return null; // dead code
+    }
+
+    /** Returns the annotated type of the field with the given name in {@link #classTree}. */
+    public AnnotatedTypeMirror getFieldType(String name) {
+        for (Tree member : classTree.getMembers()) {
+            if (member.getKind() == Tree.Kind.VARIABLE
+                    && ((VariableTree) member).getName().contentEquals(name)) {
+                return factory.getAnnotatedType(
+                        TreeUtils.elementFromDeclaration((VariableTree) member));
+            }
+        }
+        ErrorReporter.errorAbort("No field " + name + " in " + classTree.getSimpleName());
+        return null; // dead code
+    }
+}
@@ -0,0 +1,82 @@
+package org.checkerframework.benchmarks;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import org.checkerframework.framework.test.TestUtilities;
+import org.checkerframework.javacutil.ErrorReporter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Macro-benchmark that type-checks the test directory of a checker, for example {@code
+ * checker/tests/nullness}, with that checker. As in the test suite, each directory is compiled
+ * separately; one benchmark operation compiles all of them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class CheckerTestsBenchmark {
+
+    /** The checker, which is also the name of its test directory. */
+    @Param({"nullness", "index", "lock"})
+    public String checker;
+
+    private List<List<File>> filesPerDirectory;
+
+    @Setup
+    public void findTestFiles() {
+        filesPerDirectory =
+                TestUtilities.findJavaFilesPerDirectory(
+                        CheckerEnvironment.checkerTestsDirectory(), checker);
+        if (filesPerDirectory.isEmpty()) {
+            ErrorReporter.errorAbort(
+                    "No test files for "
+                            + checker
+                            + " in "
+                            + CheckerEnvironment.checkerTestsDirectory());
+        }
+    }
+
+    @Benchmark
+    public int typeCheck() {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        List<String> options = new ArrayList<>();
+        options.add("-processor");
+        options.add(CheckerEnvironment.checkerClass(checker).getName());
+        options.addAll(CheckerEnvironment.compilerOptions());
+
+        int compiledWithoutError = 0;
+        for (List<File> files : filesPerDirectory) {
+            StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null);
+            Boolean result =
+                    compiler.getTask(
+                                    null,
+                                    fileManager,
+                                    CheckerEnvironment.IGNORE_DIAGNOSTICS,
+                                    options,
+                                    null,
+                                    fileManager.getJavaFileObjects(
+                                            files.toArray(new File[files.size()])))
+                            .call();
+            if (result) {
+                compiledWithoutError++;
+            }
+        }
+        return compiledWithoutError;
+    }
+}
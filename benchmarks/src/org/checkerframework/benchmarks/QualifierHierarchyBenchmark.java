@@ -0,0 +1,53 @@
+package org.checkerframework.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import javax.lang.model.element.AnnotationMirror;
+import org.checkerframework.framework.type.QualifierHierarchy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks {@link QualifierHierarchy#isSubtype(AnnotationMirror, AnnotationMirror)} and {@link
+ * QualifierHierarchy#leastUpperBound(AnnotationMirror, AnnotationMirror)} on the first hierarchy of
+ * the checker.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class QualifierHierarchyBenchmark extends AbstractCheckerBenchmark {
+
+    private QualifierHierarchy qualHierarchy;
+    private AnnotationMirror top;
+    private AnnotationMirror bottom;
+
+    @Override
+    protected void setUp() {
+        qualHierarchy = env.factory.getQualifierHierarchy();
+        top = qualHierarchy.getTopAnnotations().iterator().next();
+        bottom = qualHierarchy.getBottomAnnotation(top);
+    }
+
+    @Benchmark
+    public boolean isSubtypeBottomTop() {
+        return qualHierarchy.isSubtype(bottom, top);
+    }
+
+    @Benchmark
+    public boolean isSubtypeTopBottom() {
+        return qualHierarchy.isSubtype(top, bottom);
+    }
+
+    @Benchmark
+    public AnnotationMirror leastUpperBound() {
+        return qualHierarchy.leastUpperBound(bottom, top);
+    }
+
+    @Benchmark
+    public AnnotationMirror leastUpperBoundSame() {
+        return qualHierarchy.leastUpperBound(bottom, bottom);
+    }
+}
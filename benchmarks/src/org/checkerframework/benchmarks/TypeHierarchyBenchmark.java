@@ -0,0 +1,45 @@
+package org.checkerframework.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.checkerframework.framework.type.AnnotatedTypeMirror;
+import org.checkerframework.framework.type.DefaultTypeHierarchy;
+import org.checkerframework.framework.type.TypeHierarchy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks {@link DefaultTypeHierarchy#isSubtype(AnnotatedTypeMirror, AnnotatedTypeMirror)} on
+ * the deeply nested generic field types of the corpus.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TypeHierarchyBenchmark extends AbstractCheckerBenchmark {
+
+    private TypeHierarchy typeHierarchy;
+    private AnnotatedTypeMirror deepSuper;
+    private AnnotatedTypeMirror deepSub;
+    private AnnotatedTypeMirror wildcardSuper;
+
+    @Override
+    protected void setUp() {
+        typeHierarchy = env.factory.getTypeHierarchy();
+        deepSuper = env.getFieldType("deepSuper");
+        deepSub = env.getFieldType("deepSub");
+        wildcardSuper = env.getFieldType("wildcardSuper");
+    }
+
+    @Benchmark
+    public boolean isSubtypeDeepGenerics() {
+        return typeHierarchy.isSubtype(deepSub, deepSuper);
+    }
+
+    @Benchmark
+    public boolean isSubtypeDeepWildcards() {
+        return typeHierarchy.isSubtype(deepSub, wildcardSuper);
+    }
+}
@@ -0,0 +1,7 @@
+/**
+ * Contains JMH microbenchmarks for hot operations of the Checker Framework and the Dataflow
+ * Framework, and macro-benchmarks that type-check the test suites of individual checkers.
+ *
+ * <p>See the README file in the benchmarks directory for how to run them.
+ */
+package org.checkerframework.benchmarks;
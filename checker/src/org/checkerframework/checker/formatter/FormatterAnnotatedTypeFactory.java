@@ -19,6 +19,7 @@ import org.checkerframework.framework.type.QualifierHierarchy;
 import org.checkerframework.framework.type.treeannotator.ListTreeAnnotator;
 import org.checkerframework.framework.type.treeannotator.TreeAnnotator;
 import org.checkerframework.framework.util.GraphQualifierHierarchy;
+import org.checkerframework.framework.util.LiteralAnalysisCache;
 import org.checkerframework.framework.util.MultiGraphQualifierHierarchy.MultiGraphFactory;
 import org.checkerframework.javacutil.AnnotationUtils;
 
@@ -39,6 +40,19 @@ public class FormatterAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
 
     protected final FormatterTreeUtil treeUtil;
 
+    /**
+     * The conversion categories of String and char literals, shared by all instances of this
+     * factory, so that each distinct format string is parsed only once.
+     */
+    private static final LiteralAnalysisCache<ConversionCategory[]> literalCategories =
+            new LiteralAnalysisCache<ConversionCategory[]>(
+                    new LiteralAnalysisCache.LiteralAnalysis<ConversionCategory[]>() {
+                        @Override
+                        public ConversionCategory[] analyze(String format) {
+                            return FormatUtil.formatParameterCategories(format);
+                        }
+                    });
+
     public FormatterAnnotatedTypeFactory(BaseTypeChecker checker) {
         super(checker);
 
@@ -83,7 +97,7 @@ public class FormatterAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
                 if (format != null) {
                     AnnotationMirror anno;
                     try {
-                        ConversionCategory[] cs = FormatUtil.formatParameterCategories(format);
+                        ConversionCategory[] cs = literalCategories.get(format);
                         anno =
                                 FormatterAnnotatedTypeFactory.this.treeUtil
                                         .categoriesToFormatAnnotation(cs);
@@ -28,6 +28,7 @@ import org.checkerframework.framework.type.QualifierHierarchy;
 import org.checkerframework.framework.type.treeannotator.ListTreeAnnotator;
 import org.checkerframework.framework.type.treeannotator.TreeAnnotator;
 import org.checkerframework.framework.util.GraphQualifierHierarchy;
+import org.checkerframework.framework.util.LiteralAnalysisCache;
 import org.checkerframework.framework.util.MultiGraphQualifierHierarchy.MultiGraphFactory;
 import org.checkerframework.javacutil.AnnotationUtils;
 
@@ -55,6 +56,19 @@ public class I18nFormatterAnnotatedTypeFactory extends BaseAnnotatedTypeFactory
 
     protected final I18nFormatterTreeUtil treeUtil;
 
+    /**
+     * The conversion categories of format strings, shared by all instances of this factory, so that
+     * each distinct format string is parsed only once.
+     */
+    private static final LiteralAnalysisCache<I18nConversionCategory[]> formatCategories =
+            new LiteralAnalysisCache<I18nConversionCategory[]>(
+                    new LiteralAnalysisCache.LiteralAnalysis<I18nConversionCategory[]>() {
+                        @Override
+                        public I18nConversionCategory[] analyze(String format) {
+                            return I18nFormatUtil.formatParameterCategories(format);
+                        }
+                    });
+
     public I18nFormatterAnnotatedTypeFactory(BaseTypeChecker checker) {
         super(checker);
 
@@ -70,6 +84,16 @@ public class I18nFormatterAnnotatedTypeFactory extends BaseAnnotatedTypeFactory
         this.postInit();
     }
 
+    /**
+     * Returns {@link I18nFormatUtil#formatParameterCategories(String)} for {@code format}. The
+     * result is shared and must not be modified.
+     *
+     * @throws IllegalArgumentException if the format is not syntactically valid
+     */
+    public I18nConversionCategory[] getFormatParameterCategories(String format) {
+        return formatCategories.get(format);
+    }
+
     @Override
     protected Set<Class<? extends Annotation>> createSupportedTypeQualifiers() {
         return getBundledTypeQualifiersWithoutPolyAll(
@@ -197,8 +221,7 @@ public class I18nFormatterAnnotatedTypeFactory extends BaseAnnotatedTypeFactory
                 if (format != null) {
                     AnnotationMirror anno;
                     try {
-                        I18nConversionCategory[] cs =
-                                I18nFormatUtil.formatParameterCategories(format);
+                        I18nConversionCategory[] cs = getFormatParameterCategories(format);
                         anno =
                                 I18nFormatterAnnotatedTypeFactory.this.treeUtil
                                         .categoriesToFormatAnnotation(cs);
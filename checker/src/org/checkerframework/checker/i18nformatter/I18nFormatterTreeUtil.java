@@ -215,7 +215,7 @@ public class I18nFormatterTreeUtil {
                 String value = translations.get(s);
                 ret =
                         new ResultImpl<I18nConversionCategory[]>(
-                                I18nFormatUtil.formatParameterCategories(value), node.getTree());
+                                atypeFactory.getFormatParameterCategories(value), node.getTree());
             }
         }
         return ret;
@@ -31,6 +31,9 @@ import org.checkerframework.javacutil.Pair;
  * <p>{@link LTLengthOf} is modeled by {@link LessThanLengthOf}. {@link LTEqLengthOf} is equivalent
  * to @{@link LessThanLengthOf} with an offset of -1. {@link LTOMLengthOf} is equivalent to @{@link
  * LessThanLengthOf} with an offset of 1.
+ *
+ * <p>UBQualifiers are immutable: all operations return new qualifiers. This allows {@link
+ * UpperBoundAnnotatedTypeFactory} to cache and share them.
  */
 public abstract class UBQualifier {
 
@@ -564,11 +567,13 @@ public abstract class UBQualifier {
 
             Map<String, Set<OffsetEquation>> glbMap = new HashMap<>();
             for (String array : arrays) {
-                Set<OffsetEquation> glb = map.get(array);
+                Set<OffsetEquation> glb = new HashSet<>();
+                Set<OffsetEquation> thisglb = map.get(array);
+                if (thisglb != null) {
+                    glb.addAll(thisglb);
+                }
                 Set<OffsetEquation> otherglb = otherLtl.map.get(array);
-                if (glb == null) {
-                    glb = otherglb;
-                } else if (otherglb != null) {
+                if (otherglb != null) {
                     glb.addAll(otherglb);
                 }
                 glbMap.put(array, simplifyOffsets(glb));
@@ -17,6 +17,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import javax.lang.model.element.AnnotationMirror;
 import org.checkerframework.checker.index.IndexMethodIdentifier;
@@ -63,6 +64,7 @@ import org.checkerframework.framework.util.dependenttypes.DependentTypesError;
 import org.checkerframework.framework.util.dependenttypes.DependentTypesHelper;
 import org.checkerframework.framework.util.dependenttypes.DependentTypesTreeAnnotator;
 import org.checkerframework.javacutil.AnnotationUtils;
+import org.checkerframework.javacutil.CollectionUtils;
 import org.checkerframework.javacutil.TreeUtils;
 
 /**
@@ -76,6 +78,17 @@ public class UpperBoundAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
 
     private final IndexMethodIdentifier imf;
 
+    /** Size of the caches of qualifiers and annotations. */
+    private static final int UB_QUALIFIER_CACHE_SIZE = 1000;
+
+    /** Maps an annotation to the qualifier it represents. */
+    private final Map<AnnotationMirror, UBQualifier> ubQualifierCache =
+            CollectionUtils.createLRUCache(UB_QUALIFIER_CACHE_SIZE);
+
+    /** Maps a qualifier to the annotation that represents it. */
+    private final Map<UBQualifier, AnnotationMirror> ubAnnotationCache =
+            CollectionUtils.createLRUCache(UB_QUALIFIER_CACHE_SIZE);
+
     public UpperBoundAnnotatedTypeFactory(BaseTypeChecker checker) {
         super(checker);
         UNKNOWN = AnnotationUtils.fromClass(elements, UpperBoundUnknown.class);
@@ -364,8 +377,8 @@ public class UpperBoundAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
 
         @Override
         public AnnotationMirror greatestLowerBound(AnnotationMirror a1, AnnotationMirror a2) {
-            UBQualifier a1Obj = UBQualifier.createUBQualifier(a1);
-            UBQualifier a2Obj = UBQualifier.createUBQualifier(a2);
+            UBQualifier a1Obj = getUBQualifier(a1);
+            UBQualifier a2Obj = getUBQualifier(a2);
             UBQualifier glb = a1Obj.glb(a2Obj);
             return convertUBQualifierToAnnotation(glb);
         }
@@ -379,16 +392,16 @@ public class UpperBoundAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
          */
         @Override
         public AnnotationMirror leastUpperBound(AnnotationMirror a1, AnnotationMirror a2) {
-            UBQualifier a1Obj = UBQualifier.createUBQualifier(a1);
-            UBQualifier a2Obj = UBQualifier.createUBQualifier(a2);
+            UBQualifier a1Obj = getUBQualifier(a1);
+            UBQualifier a2Obj = getUBQualifier(a2);
             UBQualifier lub = a1Obj.lub(a2Obj);
             return convertUBQualifierToAnnotation(lub);
         }
 
         @Override
         public AnnotationMirror widenUpperBound(AnnotationMirror a, AnnotationMirror b) {
-            UBQualifier a1Obj = UBQualifier.createUBQualifier(a);
-            UBQualifier a2Obj = UBQualifier.createUBQualifier(b);
+            UBQualifier a1Obj = getUBQualifier(a);
+            UBQualifier a2Obj = getUBQualifier(b);
             UBQualifier lub = a1Obj.widenUpperBound(a2Obj);
             return convertUBQualifierToAnnotation(lub);
         }
@@ -407,8 +420,8 @@ public class UpperBoundAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
          */
         @Override
         public boolean isSubtype(AnnotationMirror subAnno, AnnotationMirror superAnno) {
-            UBQualifier subtype = UBQualifier.createUBQualifier(subAnno);
-            UBQualifier supertype = UBQualifier.createUBQualifier(superAnno);
+            UBQualifier subtype = getUBQualifier(subAnno);
+            UBQualifier supertype = getUBQualifier(superAnno);
             return subtype.isSubtype(supertype);
         }
     }
@@ -451,7 +464,7 @@ public class UpperBoundAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
             if (isRandomNextInt(tree)) {
                 AnnotatedTypeMirror argType = getAnnotatedType(tree.getArguments().get(0));
                 AnnotationMirror anno = argType.getAnnotationInHierarchy(UNKNOWN);
-                UBQualifier qualifier = UBQualifier.createUBQualifier(anno);
+                UBQualifier qualifier = getUBQualifier(anno);
                 qualifier = qualifier.plusOffset(1);
                 type.replaceAnnotation(convertUBQualifierToAnnotation(qualifier));
             }
@@ -540,8 +553,7 @@ public class UpperBoundAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
             }
 
             UBQualifier result = UpperBoundUnknownQualifier.UNKNOWN;
-            UBQualifier numerator =
-                    UBQualifier.createUBQualifier(getAnnotatedType(numeratorTree), UNKNOWN);
+            UBQualifier numerator = getUBQualifier(getAnnotatedType(numeratorTree));
             if (numerator.isLessThanLengthQualifier()) {
                 result = ((LessThanLengthOf) numerator).divide(divisor);
             }
@@ -559,12 +571,8 @@ public class UpperBoundAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
                 return UpperBoundUnknownQualifier.UNKNOWN;
             }
             BinaryTree plusTree = (BinaryTree) numeratorTree;
-            UBQualifier left =
-                    UBQualifier.createUBQualifier(
-                            getAnnotatedType(plusTree.getLeftOperand()), UNKNOWN);
-            UBQualifier right =
-                    UBQualifier.createUBQualifier(
-                            getAnnotatedType(plusTree.getRightOperand()), UNKNOWN);
+            UBQualifier left = getUBQualifier(getAnnotatedType(plusTree.getLeftOperand()));
+            UBQualifier right = getUBQualifier(getAnnotatedType(plusTree.getRightOperand()));
             if (left.isLessThanLengthQualifier() && right.isLessThanLengthQualifier()) {
                 LessThanLengthOf leftLTL = (LessThanLengthOf) left;
                 LessThanLengthOf rightLTL = (LessThanLengthOf) right;
@@ -618,6 +626,35 @@ public class UpperBoundAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
         }
     }
 
+    /**
+     * Returns the qualifier that {@code anno} represents. The result is cached, so that the values
+     * of an annotation are only parsed once.
+     *
+     * @param anno an Upper Bound annotation
+     * @return the qualifier that {@code anno} represents
+     */
+    public UBQualifier getUBQualifier(AnnotationMirror anno) {
+        UBQualifier qualifier = ubQualifierCache.get(anno);
+        if (qualifier == null) {
+            qualifier = UBQualifier.createUBQualifier(anno);
+            ubQualifierCache.put(anno, qualifier);
+        }
+        return qualifier;
+    }
+
+    /** Returns the qualifier of the effective Upper Bound annotation of {@code type}. */
+    public UBQualifier getUBQualifier(AnnotatedTypeMirror type) {
+        return getUBQualifier(type.getEffectiveAnnotationInHierarchy(UNKNOWN));
+    }
+
+    /**
+     * Returns the annotation that represents {@code qualifier}. Equal qualifiers are converted to
+     * the same annotation, whose qualifier is then found by {@link
+     * #getUBQualifier(AnnotationMirror)} without parsing the annotation.
+     *
+     * @param qualifier an Upper Bound qualifier
+     * @return the annotation that represents {@code qualifier}
+     */
     public AnnotationMirror convertUBQualifierToAnnotation(UBQualifier qualifier) {
         if (qualifier.isUnknown()) {
             return UNKNOWN;
@@ -627,7 +664,13 @@ public class UpperBoundAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
             return POLY;
         }
 
-        LessThanLengthOf ltlQualifier = (LessThanLengthOf) qualifier;
-        return ltlQualifier.convertToAnnotationMirror(processingEnv);
+        AnnotationMirror anno = ubAnnotationCache.get(qualifier);
+        if (anno == null) {
+            LessThanLengthOf ltlQualifier = (LessThanLengthOf) qualifier;
+            anno = ltlQualifier.convertToAnnotationMirror(processingEnv);
+            ubAnnotationCache.put(qualifier, anno);
+            ubQualifierCache.put(anno, qualifier);
+        }
+        return anno;
     }
 }
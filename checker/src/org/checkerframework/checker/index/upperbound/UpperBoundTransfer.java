@@ -213,9 +213,9 @@ public class UpperBoundTransfer extends IndexAbstractTransfer {
             CFStore store,
             TransferInput<CFValue, CFStore> in) {
         // left > right
-        UBQualifier leftQualifier = UBQualifier.createUBQualifier(leftAnno);
+        UBQualifier leftQualifier = atypeFactory.getUBQualifier(leftAnno);
         leftQualifier = leftQualifier.plusOffset(1);
-        UBQualifier rightQualifier = UBQualifier.createUBQualifier(rightAnno);
+        UBQualifier rightQualifier = atypeFactory.getUBQualifier(rightAnno);
         UBQualifier refinedRight = rightQualifier.glb(leftQualifier);
 
         if (isArrayLengthFieldAccess(left)) {
@@ -242,8 +242,8 @@ public class UpperBoundTransfer extends IndexAbstractTransfer {
             AnnotationMirror rightAnno,
             CFStore store,
             TransferInput<CFValue, CFStore> in) {
-        UBQualifier leftQualifier = UBQualifier.createUBQualifier(leftAnno);
-        UBQualifier rightQualifier = UBQualifier.createUBQualifier(rightAnno);
+        UBQualifier leftQualifier = atypeFactory.getUBQualifier(leftAnno);
+        UBQualifier rightQualifier = atypeFactory.getUBQualifier(rightAnno);
         UBQualifier refinedRight = rightQualifier.glb(leftQualifier);
 
         if (isArrayLengthFieldAccess(left)) {
@@ -288,8 +288,8 @@ public class UpperBoundTransfer extends IndexAbstractTransfer {
             Node right,
             AnnotationMirror rightAnno,
             CFStore store) {
-        UBQualifier leftQualifier = UBQualifier.createUBQualifier(leftAnno);
-        UBQualifier rightQualifier = UBQualifier.createUBQualifier(rightAnno);
+        UBQualifier leftQualifier = atypeFactory.getUBQualifier(leftAnno);
+        UBQualifier rightQualifier = atypeFactory.getUBQualifier(rightAnno);
         UBQualifier glb = rightQualifier.glb(leftQualifier);
         AnnotationMirror glbAnno = atypeFactory.convertUBQualifierToAnnotation(glb);
 
@@ -313,7 +313,7 @@ public class UpperBoundTransfer extends IndexAbstractTransfer {
     private void refineNeqArrayLength(
             Node arrayLengthAccess, Node otherNode, AnnotationMirror otherNodeAnno, CFStore store) {
         if (isArrayLengthFieldAccess(arrayLengthAccess)) {
-            UBQualifier otherQualifier = UBQualifier.createUBQualifier(otherNodeAnno);
+            UBQualifier otherQualifier = atypeFactory.getUBQualifier(otherNodeAnno);
             FieldAccess fa =
                     FlowExpressions.internalReprOfFieldAccess(
                             atypeFactory, (FieldAccessNode) arrayLengthAccess);
@@ -492,7 +492,7 @@ public class UpperBoundTransfer extends IndexAbstractTransfer {
         if (anno == null) {
             return UpperBoundUnknownQualifier.UNKNOWN;
         }
-        return UBQualifier.createUBQualifier(anno);
+        return atypeFactory.getUBQualifier(anno);
     }
 
     private TransferResult<CFValue, CFStore> createTransferResult(
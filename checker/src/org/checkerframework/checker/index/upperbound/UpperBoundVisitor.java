@@ -53,7 +53,7 @@ public class UpperBoundVisitor extends BaseTypeVisitor<UpperBoundAnnotatedTypeFa
         AnnotatedTypeMirror indexType = atypeFactory.getAnnotatedType(indexTree);
         String arrName = FlowExpressions.internalReprOf(this.atypeFactory, arrTree).toString();
 
-        UBQualifier qualifier = UBQualifier.createUBQualifier(indexType, atypeFactory.UNKNOWN);
+        UBQualifier qualifier = atypeFactory.getUBQualifier(indexType);
         if (qualifier.isLessThanLengthOf(arrName)) {
             return;
         }
@@ -127,8 +127,7 @@ public class UpperBoundVisitor extends BaseTypeVisitor<UpperBoundAnnotatedTypeFa
             }
             // The qualifier we need for an array is in the component type, not varType.
             AnnotatedTypeMirror componentType = ((AnnotatedArrayType) varType).getComponentType();
-            UBQualifier qualifier =
-                    UBQualifier.createUBQualifier(componentType, atypeFactory.UNKNOWN);
+            UBQualifier qualifier = atypeFactory.getUBQualifier(componentType);
             if (!qualifier.isLessThanLengthQualifier()) {
                 return false;
             }
@@ -140,7 +139,7 @@ public class UpperBoundVisitor extends BaseTypeVisitor<UpperBoundAnnotatedTypeFa
             return true;
         }
 
-        UBQualifier qualifier = UBQualifier.createUBQualifier(varType, atypeFactory.UNKNOWN);
+        UBQualifier qualifier = atypeFactory.getUBQualifier(varType);
         return qualifier.isLessThanLengthQualifier()
                 && relaxedCommonAssignmentCheck((LessThanLengthOf) qualifier, valueExp);
     }
@@ -149,7 +148,7 @@ public class UpperBoundVisitor extends BaseTypeVisitor<UpperBoundAnnotatedTypeFa
             LessThanLengthOf varLtlQual, ExpressionTree valueExp) {
 
         AnnotatedTypeMirror expType = atypeFactory.getAnnotatedType(valueExp);
-        UBQualifier expQual = UBQualifier.createUBQualifier(expType, atypeFactory.UNKNOWN);
+        UBQualifier expQual = atypeFactory.getUBQualifier(expType);
 
         Integer value = atypeFactory.valMaxFromExpressionTree(valueExp);
 
@@ -13,8 +13,10 @@ import com.sun.source.util.TreePath;
 import java.lang.annotation.Annotation;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.Element;
@@ -59,6 +61,7 @@ import org.checkerframework.framework.util.MultiGraphQualifierHierarchy.MultiGra
 import org.checkerframework.framework.util.dependenttypes.DependentTypesError;
 import org.checkerframework.framework.util.dependenttypes.DependentTypesHelper;
 import org.checkerframework.javacutil.AnnotationUtils;
+import org.checkerframework.javacutil.CollectionUtils;
 import org.checkerframework.javacutil.ElementUtils;
 import org.checkerframework.javacutil.InternalUtils;
 import org.checkerframework.javacutil.Pair;
@@ -90,6 +93,16 @@ public class LockAnnotatedTypeFactory
             GUARDEDBYBOTTOM,
             GUARDSATISFIED;
 
+    /** Size of {@link #lockPossiblyHeldSets}. */
+    private static final int LOCK_POSSIBLY_HELD_SETS_SIZE = 300;
+
+    /**
+     * Maps an annotation in the GuardedBy hierarchy to the set of it and @LockPossiblyHeld. See
+     * {@link #getLockPossiblyHeldSet(AnnotationMirror)}.
+     */
+    private final Map<AnnotationMirror, Set<AnnotationMirror>> lockPossiblyHeldSets =
+            CollectionUtils.createLRUCache(LOCK_POSSIBLY_HELD_SETS_SIZE);
+
     public LockAnnotatedTypeFactory(BaseTypeChecker checker) {
         super(checker, true);
 
@@ -114,6 +127,25 @@ public class LockAnnotatedTypeFactory
         postInit();
     }
 
+    /**
+     * Returns the unmodifiable set of @LockPossiblyHeld and {@code guardedBy}. The sets are shared,
+     * so that a store does not build a new set each time it forgets that a lock is held.
+     *
+     * @param guardedBy an annotation in the GuardedBy hierarchy
+     * @return the set of @LockPossiblyHeld and {@code guardedBy}
+     */
+    Set<AnnotationMirror> getLockPossiblyHeldSet(AnnotationMirror guardedBy) {
+        Set<AnnotationMirror> set = lockPossiblyHeldSets.get(guardedBy);
+        if (set == null) {
+            set = AnnotationUtils.createAnnotationSet();
+            set.add(LOCKPOSSIBLYHELD);
+            set.add(guardedBy);
+            set = Collections.unmodifiableSet(set);
+            lockPossiblyHeldSets.put(guardedBy, set);
+        }
+        return set;
+    }
+
     @Override
     protected DependentTypesHelper createDependentTypesHelper() {
         return new DependentTypesHelper(this) {
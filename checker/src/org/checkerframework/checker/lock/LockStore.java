@@ -4,7 +4,7 @@ package org.checkerframework.checker.lock;
 import org.checkerframework.checker.nullness.qual.Nullable;
 */
 
-import java.util.ArrayList;
+import java.util.Map;
 import java.util.Set;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.ExecutableElement;
@@ -77,29 +77,39 @@ public class LockStore extends CFAbstractStore<CFValue, LockStore> {
             FlowExpressions.LocalVariable localVar = (FlowExpressions.LocalVariable) r;
             CFValue current = localVariableValues.get(localVar);
             CFValue value = changeLockAnnoToTop(r, current);
-            localVariableValues.put(localVar, value);
+            if (value != current) {
+                localVariableValues.put(localVar, value);
+            }
         } else if (r instanceof FlowExpressions.FieldAccess) {
             FlowExpressions.FieldAccess fieldAcc = (FlowExpressions.FieldAccess) r;
             CFValue current = fieldValues.get(fieldAcc);
             CFValue value = changeLockAnnoToTop(r, current);
-            fieldValues.put(fieldAcc, value);
+            if (value != current) {
+                fieldValues.put(fieldAcc, value);
+            }
         } else if (r instanceof FlowExpressions.MethodCall) {
             FlowExpressions.MethodCall method = (FlowExpressions.MethodCall) r;
             CFValue current = methodValues.get(method);
             CFValue value = changeLockAnnoToTop(r, current);
-            methodValues.put(method, value);
+            if (value != current) {
+                methodValues.put(method, value);
+            }
         } else if (r instanceof FlowExpressions.ArrayAccess) {
             FlowExpressions.ArrayAccess arrayAccess = (ArrayAccess) r;
             CFValue current = arrayValues.get(arrayAccess);
             CFValue value = changeLockAnnoToTop(r, current);
-            arrayValues.put(arrayAccess, value);
+            if (value != current) {
+                arrayValues.put(arrayAccess, value);
+            }
         } else if (r instanceof FlowExpressions.ThisReference) {
             thisValue = changeLockAnnoToTop(r, thisValue);
         } else if (r instanceof FlowExpressions.ClassName) {
             FlowExpressions.ClassName className = (FlowExpressions.ClassName) r;
             CFValue current = classValues.get(className);
             CFValue value = changeLockAnnoToTop(r, current);
-            classValues.put(className, value);
+            if (value != current) {
+                classValues.put(className, value);
+            }
         } else {
             // No other types of expressions need to be stored.
         }
@@ -108,24 +118,29 @@ public class LockStore extends CFAbstractStore<CFValue, LockStore> {
     /**
      * Makes a new CFValue with the same annotations as currentValue except that the annotation in
      * the LockPossiblyHeld hierarchy is set to LockPossiblyHeld. If currentValue is null, then a
-     * new value is created where the annotation set is LockPossiblyHeld and GuardedByUnknown
+     * new value is created where the annotation set is LockPossiblyHeld and GuardedByUnknown. If
+     * currentValue already has LockPossiblyHeld, then currentValue itself is returned.
      */
     private CFValue changeLockAnnoToTop(Receiver r, CFValue currentValue) {
         if (currentValue == null) {
-            Set<AnnotationMirror> set = AnnotationUtils.createAnnotationSet();
-            set.add(atypeFactory.GUARDEDBYUNKNOWN);
-            set.add(atypeFactory.LOCKPOSSIBLYHELD);
-            return analysis.createAbstractValue(set, r.getType());
+            return analysis.createAbstractValue(
+                    atypeFactory.getLockPossiblyHeldSet(atypeFactory.GUARDEDBYUNKNOWN),
+                    r.getType());
         }
 
-        QualifierHierarchy hierarchy = atypeFactory.getQualifierHierarchy();
         Set<AnnotationMirror> currentSet = currentValue.getAnnotations();
+        if (hasLockPossiblyHeld(currentValue)) {
+            return currentValue;
+        }
+        QualifierHierarchy hierarchy = atypeFactory.getQualifierHierarchy();
         AnnotationMirror gb =
                 hierarchy.findAnnotationInHierarchy(currentSet, atypeFactory.GUARDEDBYUNKNOWN);
-        Set<AnnotationMirror> newSet = AnnotationUtils.createAnnotationSet();
-        newSet.add(atypeFactory.LOCKPOSSIBLYHELD);
+        Set<AnnotationMirror> newSet;
         if (gb != null) {
-            newSet.add(gb);
+            newSet = atypeFactory.getLockPossiblyHeldSet(gb);
+        } else {
+            newSet = AnnotationUtils.createAnnotationSet();
+            newSet.add(atypeFactory.LOCKPOSSIBLYHELD);
         }
         return analysis.createAbstractValue(newSet, currentValue.getUnderlyingType());
     }
@@ -184,14 +199,20 @@ public class LockStore extends CFAbstractStore<CFValue, LockStore> {
             // hierarchy, even a final field might be locked or unlocked by a side-effecting
             // method.  So, final fields must be set to @LockPossiblyHeld, but the annotation in
             // the GuardedBy hierarchy should not be changed.
-            for (FieldAccess field : new ArrayList<>(fieldValues.keySet())) {
-                fieldValues.put(field, changeLockAnnoToTop(field, fieldValues.get(field)));
+            // Only the values that are not already @LockPossiblyHeld are replaced.
+            for (Map.Entry<FieldAccess, CFValue> entry : fieldValues.entrySet()) {
+                CFValue newValue = changeLockAnnoToTop(entry.getKey(), entry.getValue());
+                if (newValue != entry.getValue()) {
+                    entry.setValue(newValue);
+                }
             }
 
             // Local variables could also be unlocked via an alias
-            for (LocalVariable var : new ArrayList<>(localVariableValues.keySet())) {
-                CFValue newValue = changeLockAnnoToTop(var, localVariableValues.get(var));
-                localVariableValues.put(var, newValue);
+            for (Map.Entry<LocalVariable, CFValue> entry : localVariableValues.entrySet()) {
+                CFValue newValue = changeLockAnnoToTop(entry.getKey(), entry.getValue());
+                if (newValue != entry.getValue()) {
+                    entry.setValue(newValue);
+                }
             }
         }
     }
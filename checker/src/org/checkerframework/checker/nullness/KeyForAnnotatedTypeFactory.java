@@ -4,19 +4,21 @@ package org.checkerframework.checker.nullness;
 import org.checkerframework.checker.compilermsgs.qual.CompilerMessageKey;
 */
 
+import com.sun.source.tree.CompilationUnitTree;
 import com.sun.source.tree.ExpressionTree;
 import com.sun.source.tree.NewClassTree;
 import com.sun.source.tree.Tree;
 import java.lang.annotation.Annotation;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import javax.lang.model.element.AnnotationMirror;
-import javax.lang.model.element.AnnotationValue;
-import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
@@ -53,6 +55,22 @@ public class KeyForAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
 
     private final KeyForPropagator keyForPropagator;
 
+    // The map expressions of @KeyFor annotations are interned to small ids, so that the sets of
+    // map expressions can be represented and compared as bit sets. The ids are per compilation
+    // unit; see setRoot.
+
+    /** Maps a map expression to its id. */
+    private final Map<String, Integer> expressionIds = new HashMap<>();
+
+    /** The map expressions, indexed by id. */
+    private final List<String> expressions = new ArrayList<>();
+
+    /** Maps a set of ids to the canonical @KeyFor annotation for it. */
+    private final Map<BitSet, AnnotationMirror> keyForAnnotations = new HashMap<>();
+
+    /** Maps each @KeyFor annotation seen so far to the set of ids of its map expressions. */
+    private final Map<AnnotationMirror, BitSet> keyForSets = new IdentityHashMap<>();
+
     public KeyForAnnotatedTypeFactory(BaseTypeChecker checker) {
         super(checker, true);
 
@@ -225,22 +243,107 @@ public class KeyForAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
      * Given a string array 'values', returns an AnnotationMirror corresponding to @KeyFor(values)
      */
     public AnnotationMirror createKeyForAnnotationMirrorWithValue(LinkedHashSet<String> values) {
-        // Create an AnnotationBuilder with the ArrayList
-        AnnotationBuilder builder = new AnnotationBuilder(getProcessingEnv(), KeyFor.class);
-        builder.setValue("value", values.toArray());
-
-        // Return the resulting AnnotationMirror
-        return builder.build();
+        BitSet ids = new BitSet();
+        for (String value : values) {
+            ids.set(getExpressionId(value));
+        }
+        return getKeyForAnnotation(ids);
     }
 
     /*
      * Given a string 'value', returns an AnnotationMirror corresponding to @KeyFor(value)
      */
     public AnnotationMirror createKeyForAnnotationMirrorWithValue(String value) {
-        // Create an ArrayList with the value
-        LinkedHashSet<String> values = new LinkedHashSet<String>();
-        values.add(value);
-        return createKeyForAnnotationMirrorWithValue(values);
+        BitSet ids = new BitSet();
+        ids.set(getExpressionId(value));
+        return getKeyForAnnotation(ids);
+    }
+
+    /**
+     * Returns the @KeyFor annotation whose map expressions are {@code mapExpression} and those of
+     * {@code keyFor}.
+     *
+     * @param keyFor a @KeyFor annotation, or null
+     * @param mapExpression a map expression
+     * @return the @KeyFor annotation for the union of the map expressions
+     */
+    public AnnotationMirror addKeyForMap(
+            /*@Nullable*/ AnnotationMirror keyFor, String mapExpression) {
+        int id = getExpressionId(mapExpression);
+        if (keyFor == null) {
+            BitSet ids = new BitSet();
+            ids.set(id);
+            return getKeyForAnnotation(ids);
+        }
+        BitSet ids = getKeyForSet(keyFor);
+        if (ids.get(id)) {
+            return getKeyForAnnotation(ids);
+        }
+        ids = (BitSet) ids.clone();
+        ids.set(id);
+        return getKeyForAnnotation(ids);
+    }
+
+    @Override
+    public void setRoot(/*@Nullable*/ CompilationUnitTree root) {
+        super.setRoot(root);
+        // The ids are only meaningful within a compilation unit. Annotations from an earlier
+        // compilation unit are still handled correctly, as their sets are recomputed on demand.
+        expressionIds.clear();
+        expressions.clear();
+        keyForAnnotations.clear();
+        keyForSets.clear();
+    }
+
+    /** Returns the id of the given map expression, assigning a new one if necessary. */
+    private int getExpressionId(String expression) {
+        Integer id = expressionIds.get(expression);
+        if (id == null) {
+            id = expressions.size();
+            expressions.add(expression);
+            expressionIds.put(expression, id);
+        }
+        return id;
+    }
+
+    /**
+     * Returns the ids of the map expressions of a @KeyFor annotation. The result must not be
+     * modified.
+     */
+    private BitSet getKeyForSet(AnnotationMirror keyFor) {
+        BitSet ids = keyForSets.get(keyFor);
+        if (ids == null) {
+            ids = new BitSet();
+            if (!keyFor.getElementValues().isEmpty()) {
+                for (String value :
+                        AnnotationUtils.getElementValueArray(keyFor, "value", String.class, true)) {
+                    ids.set(getExpressionId(value));
+                }
+            }
+            keyForSets.put(keyFor, ids);
+        }
+        return ids;
+    }
+
+    /**
+     * Returns the canonical @KeyFor annotation for the given ids of map expressions. {@code ids}
+     * must not be modified afterwards.
+     */
+    private AnnotationMirror getKeyForAnnotation(BitSet ids) {
+        AnnotationMirror keyFor = keyForAnnotations.get(ids);
+        if (keyFor == null) {
+            String[] values = new String[ids.cardinality()];
+            int i = 0;
+            for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+                values[i++] = expressions.get(id);
+            }
+            AnnotationBuilder builder = new AnnotationBuilder(getProcessingEnv(), KeyFor.class);
+            builder.setValue("value", values);
+            keyFor = builder.build();
+            keyForAnnotations.put(ids, keyFor);
+            keyForSets.put(keyFor, ids);
+        }
+        return keyFor;
     }
 
     /**
@@ -257,9 +360,7 @@ public class KeyForAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
             return false;
         }
 
-        List<String> val =
-                AnnotationUtils.getElementValueArray(keyForAnno, "value", String.class, false);
-        return val.contains(mapExpression);
+        return getKeyForSet(keyForAnno).get(getExpressionId(mapExpression));
     }
 
     @Override
@@ -275,43 +376,59 @@ public class KeyForAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
 
         @Override
         public boolean isSubtype(AnnotationMirror subAnno, AnnotationMirror superAnno) {
-            if (AnnotationUtils.areSameIgnoringValues(superAnno, KEYFOR)
-                    && AnnotationUtils.areSameIgnoringValues(subAnno, KEYFOR)) {
-                List<String> lhsValues = null;
-                List<String> rhsValues = null;
-
-                Map<? extends ExecutableElement, ? extends AnnotationValue> valMap =
-                        superAnno.getElementValues();
-
-                if (valMap.isEmpty()) {
-                    lhsValues = new ArrayList<String>();
-                } else {
-                    lhsValues =
-                            AnnotationUtils.getElementValueArray(
-                                    superAnno, "value", String.class, true);
-                }
-
-                valMap = subAnno.getElementValues();
-
-                if (valMap.isEmpty()) {
-                    rhsValues = new ArrayList<String>();
-                } else {
-                    rhsValues =
-                            AnnotationUtils.getElementValueArray(
-                                    subAnno, "value", String.class, true);
+            if (isKeyFor(superAnno) && isKeyFor(subAnno)) {
+                // The subtype must be a key for every map of the supertype.
+                BitSet subIds = getKeyForSet(subAnno);
+                BitSet superIds = getKeyForSet(superAnno);
+                for (int id = superIds.nextSetBit(0); id >= 0; id = superIds.nextSetBit(id + 1)) {
+                    if (!subIds.get(id)) {
+                        return false;
+                    }
                 }
-
-                return rhsValues.containsAll(lhsValues);
+                return true;
             }
             // Ignore annotation values to ensure that annotation is in supertype map.
-            if (AnnotationUtils.areSameIgnoringValues(superAnno, KEYFOR)) {
+            if (isKeyFor(superAnno)) {
                 superAnno = KEYFOR;
             }
-            if (AnnotationUtils.areSameIgnoringValues(subAnno, KEYFOR)) {
+            if (isKeyFor(subAnno)) {
                 subAnno = KEYFOR;
             }
             return super.isSubtype(subAnno, superAnno);
         }
+
+        @Override
+        public AnnotationMirror leastUpperBound(AnnotationMirror a1, AnnotationMirror a2) {
+            if (isKeyFor(a1) && isKeyFor(a2)) {
+                // A key for the maps of both annotations. This is more precise than the lub of
+                // the superclass, which is @UnknownKeyFor unless one set contains the other.
+                BitSet ids1 = getKeyForSet(a1);
+                BitSet ids2 = getKeyForSet(a2);
+                if (!ids1.intersects(ids2)) {
+                    return UNKNOWNKEYFOR;
+                }
+                BitSet lub = (BitSet) ids1.clone();
+                lub.and(ids2);
+                return getKeyForAnnotation(lub);
+            }
+            return super.leastUpperBound(a1, a2);
+        }
+
+        @Override
+        public AnnotationMirror greatestLowerBound(AnnotationMirror a1, AnnotationMirror a2) {
+            if (isKeyFor(a1) && isKeyFor(a2)) {
+                // A key for the maps of either annotation. This is more precise than the glb of
+                // the superclass, which is @KeyForBottom unless one set contains the other.
+                BitSet glb = (BitSet) getKeyForSet(a1).clone();
+                glb.or(getKeyForSet(a2));
+                return getKeyForAnnotation(glb);
+            }
+            return super.greatestLowerBound(a1, a2);
+        }
+
+        private boolean isKeyFor(AnnotationMirror anno) {
+            return AnnotationUtils.areSameIgnoringValues(anno, KEYFOR);
+        }
     }
 
     private TypeMirror erasedMapType = null;
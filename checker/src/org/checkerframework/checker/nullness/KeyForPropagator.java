@@ -1,8 +1,8 @@
 package org.checkerframework.checker.nullness;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import javax.annotation.processing.ProcessingEnvironment;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.type.TypeKind;
@@ -11,9 +11,9 @@ import org.checkerframework.framework.type.AnnotatedTypeFactory;
 import org.checkerframework.framework.type.AnnotatedTypeMirror;
 import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedDeclaredType;
 import org.checkerframework.framework.type.visitor.AnnotatedTypeMerger;
-import org.checkerframework.framework.util.AnnotationBuilder;
 import org.checkerframework.framework.util.TypeArgumentMapper;
 import org.checkerframework.javacutil.AnnotationUtils;
+import org.checkerframework.javacutil.CollectionUtils;
 import org.checkerframework.javacutil.Pair;
 
 /**
@@ -41,6 +41,13 @@ public class KeyForPropagator {
     // (i.e. not TypeVars, Wildcards, Intersections, or Unions).
     private final AnnotationMirror UNKNOWN_KEYFOR;
 
+    /**
+     * Caches the type argument mappings between a subtype element and a supertype element, which
+     * only depend on the two elements and are needed at every pseudo-assignment between them.
+     */
+    private final Map<Pair<TypeElement, TypeElement>, Set<Pair<Integer, Integer>>>
+            typeParamMappingCache = CollectionUtils.createLRUCache(300);
+
     public KeyForPropagator(AnnotationMirror unknownKeyfor) {
         this.UNKNOWN_KEYFOR = unknownKeyfor;
     }
@@ -98,11 +105,16 @@ public class KeyForPropagator {
             return;
         }
 
-        Set<Pair<Integer, Integer>> typeParamMappings =
-                TypeArgumentMapper.mapTypeArgumentIndices(subtypeElement, supertypeElement, types);
+        Pair<TypeElement, TypeElement> elements = Pair.of(subtypeElement, supertypeElement);
+        Set<Pair<Integer, Integer>> typeParamMappings = typeParamMappingCache.get(elements);
+        if (typeParamMappings == null) {
+            typeParamMappings =
+                    TypeArgumentMapper.mapTypeArgumentIndices(
+                            subtypeElement, supertypeElement, types);
+            typeParamMappingCache.put(elements, typeParamMappings);
+        }
 
-        KeyForPropagationMerger merger =
-                new KeyForPropagationMerger(typeFactory.getProcessingEnv());
+        KeyForPropagationMerger merger = new KeyForPropagationMerger();
 
         final List<AnnotatedTypeMirror> subtypeArgs = subtype.getTypeArguments();
         final List<AnnotatedTypeMirror> supertypeArgs = supertype.getTypeArguments();
@@ -139,11 +151,6 @@ public class KeyForPropagator {
      * receiving an annotation has an @UnknownKeyFor annotation or NO key for annotations.
      */
     private class KeyForPropagationMerger extends AnnotatedTypeMerger {
-        private final ProcessingEnvironment env;
-
-        private KeyForPropagationMerger(ProcessingEnvironment env) {
-            this.env = env;
-        }
 
         @Override
         protected void replaceAnnotations(AnnotatedTypeMirror from, AnnotatedTypeMirror to) {
@@ -153,8 +160,8 @@ public class KeyForPropagator {
             boolean toNeedsAnnotation =
                     toKeyFor == null || AnnotationUtils.areSame(toKeyFor, UNKNOWN_KEYFOR);
             if (fromKeyFor != null && toNeedsAnnotation) {
-                AnnotationBuilder annotationBuilder = new AnnotationBuilder(env, fromKeyFor);
-                to.replaceAnnotation(annotationBuilder.build());
+                // Annotation mirrors are immutable, so the @KeyFor annotation can be shared.
+                to.replaceAnnotation(fromKeyFor);
             }
         }
     }
@@ -1,7 +1,5 @@
 package org.checkerframework.checker.nullness;
 
-import java.util.LinkedHashSet;
-import java.util.Set;
 import javax.lang.model.element.AnnotationMirror;
 import org.checkerframework.checker.nullness.qual.KeyFor;
 import org.checkerframework.checker.nullness.qual.UnknownKeyFor;
@@ -56,19 +54,17 @@ public class KeyForTransfer extends CFTransfer {
             String mapName = internalReceiver.toString();
             Receiver keyReceiver = FlowExpressions.internalReprOf(factory, node.getArgument(0));
 
-            LinkedHashSet<String> keyForMaps = new LinkedHashSet<>();
-            keyForMaps.add(mapName);
-
+            AnnotationMirror previousKeyFor = null;
             final CFValue previousKeyValue = in.getValueOfSubNode(node.getArgument(0));
             if (previousKeyValue != null) {
                 for (AnnotationMirror prevAm : previousKeyValue.getAnnotations()) {
                     if (prevAm != null && AnnotationUtils.areSameByClass(prevAm, KeyFor.class)) {
-                        keyForMaps.addAll(getKeys(prevAm));
+                        previousKeyFor = prevAm;
                     }
                 }
             }
 
-            AnnotationMirror am = factory.createKeyForAnnotationMirrorWithValue(keyForMaps);
+            AnnotationMirror am = factory.addKeyForMap(previousKeyFor, mapName);
 
             if (factory.getMethodName(node).equals("containsKey")) {
                 result.getThenStore().insertValue(keyReceiver, am);
@@ -80,14 +76,4 @@ public class KeyForTransfer extends CFTransfer {
 
         return result;
     }
-
-    /** @return the String value of a KeyFor, this will throw an exception */
-    private Set<String> getKeys(final AnnotationMirror keyFor) {
-        if (keyFor.getElementValues().size() == 0) {
-            return new LinkedHashSet<>();
-        }
-
-        return new LinkedHashSet<>(
-                AnnotationUtils.getElementValueArray(keyFor, "value", String.class, true));
-    }
 }
@@ -37,6 +37,7 @@ import org.checkerframework.framework.type.treeannotator.PropagationTreeAnnotato
 import org.checkerframework.framework.type.treeannotator.TreeAnnotator;
 import org.checkerframework.framework.util.AnnotationBuilder;
 import org.checkerframework.framework.util.GraphQualifierHierarchy;
+import org.checkerframework.framework.util.LiteralAnalysisCache;
 import org.checkerframework.framework.util.MultiGraphQualifierHierarchy.MultiGraphFactory;
 import org.checkerframework.javacutil.AnnotationUtils;
 import org.checkerframework.javacutil.TreeUtils;
@@ -156,6 +157,15 @@ public class RegexAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
         return new RegexTransfer((CFAnalysis) analysis);
     }
 
+    /**
+     * The Regex Checker refines Pattern and Matcher values, and the results of methods such as
+     * Matcher.groupCount, none of which is a relevant type.
+     */
+    @Override
+    protected boolean supportsSparseFlow() {
+        return false;
+    }
+
     @Override
     public TreeAnnotator createTreeAnnotator() {
         return new ListTreeAnnotator(
@@ -244,18 +254,30 @@ public class RegexAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
     }
 
     /**
-     * This method is a copy of RegexUtil.isRegex. We cannot directly use RegexUtil, because it uses
+     * The group counts of String and char literals and of concatenations of partial regular
+     * expressions, or -1 for strings that are not valid regular expressions. Shared by all
+     * instances of this factory, so that each distinct string is compiled only once.
+     */
+    private static final LiteralAnalysisCache<Integer> literalGroupCounts =
+            new LiteralAnalysisCache<Integer>(
+                    new LiteralAnalysisCache.LiteralAnalysis<Integer>() {
+                        @Override
+                        public Integer analyze(String s) {
+                            try {
+                                return getGroupCount(s);
+                            } catch (PatternSyntaxException e) {
+                                return -1;
+                            }
+                        }
+                    });
+
+    /**
+     * Returns the number of groups in {@code s}, or -1 if {@code s} is not a valid regular
+     * expression. This is like RegexUtil.isRegex, which we cannot use directly, because it uses
      * type annotations which cannot be used in IDEs (yet).
      */
-    @SuppressWarnings("purity") // the checker cannot prove that the method is pure, but it is
-    /*@org.checkerframework.dataflow.qual.Pure*/
-    private static boolean isRegex(String s) {
-        try {
-            Pattern.compile(s);
-        } catch (PatternSyntaxException e) {
-            return false;
-        }
-        return true;
+    private static int getLiteralGroupCount(String s) {
+        return literalGroupCounts.get(s);
     }
 
     private class RegexPropagationAnnotator extends PropagationTreeAnnotator {
@@ -292,8 +314,8 @@ public class RegexAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
                     regex = Character.toString((Character) tree.getValue());
                 }
                 if (regex != null) {
-                    if (isRegex(regex)) {
-                        int groupCount = getGroupCount(regex);
+                    int groupCount = getLiteralGroupCount(regex);
+                    if (groupCount >= 0) {
                         type.addAnnotation(createRegexAnnotation(groupCount));
                     } else {
                         type.addAnnotation(createPartialRegexAnnotation(regex));
@@ -333,8 +355,8 @@ public class RegexAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
                     String lRegex = getPartialRegexValue(lExpr);
                     String rRegex = getPartialRegexValue(rExpr);
                     String concat = lRegex + rRegex;
-                    if (isRegex(concat)) {
-                        int groupCount = getGroupCount(concat);
+                    int groupCount = getLiteralGroupCount(concat);
+                    if (groupCount >= 0) {
                         type.addAnnotation(createRegexAnnotation(groupCount));
                     } else {
                         type.addAnnotation(createPartialRegexAnnotation(concat));
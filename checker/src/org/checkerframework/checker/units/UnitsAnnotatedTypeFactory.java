@@ -29,6 +29,7 @@ import org.checkerframework.framework.type.treeannotator.TreeAnnotator;
 import org.checkerframework.framework.util.GraphQualifierHierarchy;
 import org.checkerframework.framework.util.MultiGraphQualifierHierarchy.MultiGraphFactory;
 import org.checkerframework.javacutil.AnnotationUtils;
+import org.checkerframework.javacutil.CollectionUtils;
 import org.checkerframework.javacutil.ErrorReporter;
 
 /*>>>
@@ -67,6 +68,25 @@ public class UnitsAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
     private static final Map<String, AnnotationMirror> aliasMap =
             new HashMap<String, AnnotationMirror>();
 
+    /** Size of the caches of unit computations. */
+    private static final int UNITS_CACHE_SIZE = 1000;
+
+    /**
+     * Maps the kind of a multiplication or division and the units keys of its operands to the unit
+     * of the result that the UnitsRelations compute, or to null if no relation applies. See {@link
+     * #unitsKey(AnnotationMirror)}.
+     */
+    private final Map<String, AnnotationMirror> unitsRelationResults =
+            CollectionUtils.createLRUCache(UNITS_CACHE_SIZE);
+
+    /** Maps the units keys of two annotations to whether the first is a subtype of the second. */
+    private final Map<String, Boolean> subtypeResults =
+            CollectionUtils.createLRUCache(UNITS_CACHE_SIZE);
+
+    /** Maps the units keys of two annotations to their least upper bound. */
+    private final Map<String, AnnotationMirror> lubResults =
+            CollectionUtils.createLRUCache(UNITS_CACHE_SIZE);
+
     public UnitsAnnotatedTypeFactory(BaseTypeChecker checker) {
         // use true to enable flow inference, false to disable it
         super(checker, false);
@@ -304,6 +324,7 @@ public class UnitsAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
                 if (!getUnitsRel().containsKey(classname)) {
                     try {
                         unitsRel.put(classname, theclass.newInstance().init(processingEnv));
+                        unitsRelationResults.clear();
                     } catch (InstantiationException e) {
                         // TODO
                         e.printStackTrace();
@@ -367,21 +388,30 @@ public class UnitsAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
             }
 
             AnnotationMirror bestres = null;
-            for (UnitsRelations ur : getUnitsRel().values()) {
-                AnnotationMirror res = useUnitsRelation(kind, ur, lht, rht);
-
-                if (bestres != null && res != null && !bestres.equals(res)) {
-                    checker.message(
-                            Kind.WARNING,
-                            "UnitsRelation mismatch, taking neither! Previous: "
-                                    + bestres
-                                    + " and current: "
-                                    + res);
-                    return null; // super.visitBinary(node, type);
-                }
+            // Only multiplication and division have units relations.
+            if (kind == Tree.Kind.MULTIPLY || kind == Tree.Kind.DIVIDE) {
+                String key = kind + " " + unitsKey(lht) + " " + unitsKey(rht);
+                if (unitsRelationResults.containsKey(key)) {
+                    bestres = unitsRelationResults.get(key);
+                } else {
+                    for (UnitsRelations ur : getUnitsRel().values()) {
+                        AnnotationMirror res = useUnitsRelation(kind, ur, lht, rht);
+
+                        if (bestres != null && res != null && !bestres.equals(res)) {
+                            checker.message(
+                                    Kind.WARNING,
+                                    "UnitsRelation mismatch, taking neither! Previous: "
+                                            + bestres
+                                            + " and current: "
+                                            + res);
+                            return null; // super.visitBinary(node, type);
+                        }
 
-                if (res != null) {
-                    bestres = res;
+                        if (res != null) {
+                            bestres = res;
+                        }
+                    }
+                    unitsRelationResults.put(key, bestres);
                 }
             }
 
@@ -490,6 +520,16 @@ public class UnitsAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
 
         @Override
         public boolean isSubtype(AnnotationMirror subAnno, AnnotationMirror superAnno) {
+            String key = unitsKey(subAnno) + " " + unitsKey(superAnno);
+            Boolean result = subtypeResults.get(key);
+            if (result == null) {
+                result = computeIsSubtype(subAnno, superAnno);
+                subtypeResults.put(key, result);
+            }
+            return result;
+        }
+
+        private boolean computeIsSubtype(AnnotationMirror subAnno, AnnotationMirror superAnno) {
             if (AnnotationUtils.areSameIgnoringValues(superAnno, subAnno)) {
                 return AnnotationUtils.areSame(superAnno, subAnno);
             }
@@ -508,6 +548,16 @@ public class UnitsAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
         // correctly resolve to an LUB Unit.
         @Override
         public AnnotationMirror leastUpperBound(AnnotationMirror a1, AnnotationMirror a2) {
+            String key = unitsKey(a1) + " " + unitsKey(a2);
+            AnnotationMirror result = lubResults.get(key);
+            if (result == null) {
+                result = computeLeastUpperBound(a1, a2);
+                lubResults.put(key, result);
+            }
+            return result;
+        }
+
+        private AnnotationMirror computeLeastUpperBound(AnnotationMirror a1, AnnotationMirror a2) {
             AnnotationMirror result;
 
             // if the prefix is Prefix.one, automatically strip it for LUB checking
@@ -559,4 +609,23 @@ public class UnitsAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
     private AnnotationMirror removePrefix(AnnotationMirror anno) {
         return UnitsRelationsTools.removePrefix(elements, anno);
     }
+
+    /**
+     * Returns a key that identifies a units annotation: its name and its prefix. Two annotations
+     * with the same key denote the same unit, so computations on units can be cached by key.
+     */
+    private static String unitsKey(AnnotationMirror anno) {
+        String name = AnnotationUtils.annotationName(anno);
+        Prefix prefix = UnitsRelationsTools.getPrefix(anno);
+        return prefix == null ? name : name + "(" + prefix.ordinal() + ")";
+    }
+
+    /** Returns the units keys of the primary annotations of {@code type}. */
+    private static String unitsKey(AnnotatedTypeMirror type) {
+        StringBuilder key = new StringBuilder();
+        for (AnnotationMirror anno : type.getAnnotations()) {
+            key.append(unitsKey(anno)).append(',');
+        }
+        return key.toString();
+    }
 }
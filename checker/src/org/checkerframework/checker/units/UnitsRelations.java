@@ -8,7 +8,13 @@ import org.checkerframework.framework.type.AnnotatedTypeMirror;
 import org.checkerframework.checker.nullness.qual.Nullable;
 */
 
-/** Interface that is used to specify the relation between units. */
+/**
+ * Interface that is used to specify the relation between units.
+ *
+ * <p>The results of {@link #multiplication} and {@link #division} may only depend on the units
+ * annotations of their arguments, that is, on the names and prefixes of the annotations. The Units
+ * Checker caches the results for each pair of units.
+ */
 public interface UnitsRelations {
     /**
      * Initialize the object. Needs to be called before any other method.
@@ -0,0 +1,50 @@
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.checkerframework.checker.nullness.qual.*;
+
+// Test case for the least upper bound and greatest lower bound of @KeyFor annotations:
+// the lub is a key for the maps of both annotations, and the glb for the maps of either.
+class KeyForLubGlb {
+    Map<String, Object> m1 = new HashMap<>();
+    Map<String, Object> m2 = new HashMap<>();
+    Map<String, Object> m3 = new HashMap<>();
+
+    void lubOfOverlappingSets(
+            boolean b, @KeyFor({"m1", "m2"}) String x, @KeyFor({"m2", "m3"}) String y) {
+        String z;
+        if (b) {
+            z = x;
+        } else {
+            z = y;
+        }
+        @KeyFor("m2") String inBoth = z;
+        m2.get(z).toString();
+        //:: error: (assignment.type.incompatible)
+        @KeyFor("m1") String onlyInX = z;
+        //:: error: (assignment.type.incompatible)
+        @KeyFor("m3") String onlyInY = z;
+    }
+
+    void lubOfDisjointSets(boolean b, @KeyFor("m1") String x, @KeyFor("m3") String y) {
+        String z = b ? x : y;
+        //:: error: (assignment.type.incompatible)
+        @KeyFor("m1") String k1 = z;
+        //:: error: (assignment.type.incompatible)
+        @KeyFor("m3") String k3 = z;
+    }
+
+    static <T> T first(List<? super T> a, List<? super T> b) {
+        throw new RuntimeException();
+    }
+
+    void glbOfSets(List<@KeyFor({"m1", "m2"}) String> a, List<@KeyFor({"m2", "m3"}) String> b) {
+        @KeyFor({"m1", "m2", "m3"}) String all = first(a, b);
+    }
+
+    void glbIsNotBottom(List<@KeyFor("m1") String> a, List<@KeyFor("m2") String> b) {
+        @KeyFor({"m1", "m2"}) String both = first(a, b);
+        //:: error: (assignment.type.incompatible)
+        @KeyFor("m3") String other = first(a, b);
+    }
+}
@@ -0,0 +1,25 @@
+package tests;
+
+import java.io.File;
+import java.util.List;
+import org.checkerframework.framework.test.CheckerFrameworkPerDirectoryTest;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Runs the Formatter Checker tests with the sparseFlow option, which must not change the results.
+ */
+public class FormatterSparseFlowTest extends CheckerFrameworkPerDirectoryTest {
+    public FormatterSparseFlowTest(List<File> testFiles) {
+        super(
+                testFiles,
+                org.checkerframework.checker.formatter.FormatterChecker.class,
+                "formatter",
+                "-Anomsgtext",
+                "-AsparseFlow");
+    }
+
+    @Parameters
+    public static String[] getTestDirs() {
+        return new String[] {"formatter", "all-systems"};
+    }
+}
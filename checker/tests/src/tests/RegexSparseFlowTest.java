@@ -0,0 +1,24 @@
+package tests;
+
+import java.io.File;
+import java.util.List;
+import org.checkerframework.framework.test.CheckerFrameworkPerDirectoryTest;
+import org.junit.runners.Parameterized.Parameters;
+
+/** Runs the Regex Checker tests with the sparseFlow option, which must not change the results. */
+public class RegexSparseFlowTest extends CheckerFrameworkPerDirectoryTest {
+
+    public RegexSparseFlowTest(List<File> testFiles) {
+        super(
+                testFiles,
+                org.checkerframework.checker.regex.RegexChecker.class,
+                "regex",
+                "-Anomsgtext",
+                "-AsparseFlow");
+    }
+
+    @Parameters
+    public static String[] getTestDirs() {
+        return new String[] {"regex", "regex_poly", "all-systems"};
+    }
+}
@@ -0,0 +1,50 @@
+package tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import org.checkerframework.checker.signedness.SignednessChecker;
+import org.checkerframework.framework.test.CompilationResult;
+import org.checkerframework.framework.test.TestConfiguration;
+import org.checkerframework.framework.test.TestConfigurationBuilder;
+import org.checkerframework.framework.test.TestUtilities;
+import org.checkerframework.framework.test.TypecheckExecutor;
+import org.junit.Test;
+
+/**
+ * Tests that the sparseFlow option does not change the diagnostics of the Signedness Checker, whose
+ * relevant types are the numeric and character types: the Signedness Checker tests are checked
+ * with and without the option, and the results are compared.
+ */
+public class SignednessSparseFlowTest {
+
+    @Test
+    public void sparseFlowGivesTheSameDiagnostics() {
+        List<File> testFiles = TestUtilities.findNestedJavaTestFiles("signedness");
+        Set<String> dense = check(testFiles);
+        Set<String> sparse = check(testFiles, "-AsparseFlow");
+        assertFalse("The Signedness Checker tests issued no diagnostics", dense.isEmpty());
+        assertEquals(dense, sparse);
+    }
+
+    /** Checks {@code testFiles} with the Signedness Checker and returns the diagnostics. */
+    private static Set<String> check(List<File> testFiles, String... options) {
+        List<String> allOptions = new ArrayList<>();
+        allOptions.add("-Anomsgtext");
+        allOptions.addAll(Arrays.asList(options));
+        TestConfiguration config =
+                TestConfigurationBuilder.buildDefaultConfiguration(
+                        "tests" + File.separator + "signedness",
+                        testFiles,
+                        Arrays.asList(SignednessChecker.class.getName()),
+                        allOptions,
+                        TestUtilities.getShouldEmitDebugInfo());
+        CompilationResult result = new TypecheckExecutor().compile(config);
+        return TestUtilities.diagnosticsToStrings(result.getDiagnostics(), true);
+    }
+}
@@ -13,6 +13,7 @@ import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -121,6 +122,24 @@ public class Analysis<
     /** The current transfer input when the analysis is running. */
     protected TransferInput<A, S> currentInput;
 
+    /**
+     * The maximum number of transfer function invocations in one run of the analysis, or -1 for no
+     * limit.
+     */
+    protected int maxTransferFunctionCalls = -1;
+
+    /** The maximum duration of one run of the analysis in milliseconds, or -1 for no limit. */
+    protected long maxAnalysisMillis = -1;
+
+    /** The number of transfer function invocations in the current run of the analysis. */
+    protected int transferFunctionCalls;
+
+    /** The value of {@link System#nanoTime()} at the start of the current run of the analysis. */
+    protected long analysisStartNanos;
+
+    /** Did the last run of the analysis stop because it exceeded its budget? */
+    protected boolean budgetExceeded = false;
+
     public Tree getCurrentTree() {
         return currentTree;
     }
@@ -173,6 +192,38 @@ public class Analysis<
         return env;
     }
 
+    /**
+     * Limit the work done by each run of the analysis. A run that exceeds either limit stops before
+     * reaching a fix-point, and {@link #isBudgetExceeded()} returns true afterwards; its results
+     * are incomplete and must not be used.
+     *
+     * @param maxTransferFunctionCalls the maximum number of transfer function invocations, or -1
+     *     for no limit
+     * @param maxAnalysisMillis the maximum duration in milliseconds, or -1 for no limit
+     */
+    public void setBudget(int maxTransferFunctionCalls, long maxAnalysisMillis) {
+        this.maxTransferFunctionCalls = maxTransferFunctionCalls;
+        this.maxAnalysisMillis = maxAnalysisMillis;
+    }
+
+    /**
+     * Did the last run of the analysis stop because it exceeded its budget?
+     *
+     * @see #setBudget(int, long)
+     */
+    public boolean isBudgetExceeded() {
+        return budgetExceeded;
+    }
+
+    /** Has the current run of the analysis used up its budget? */
+    protected boolean hasExhaustedBudget() {
+        if (maxTransferFunctionCalls != -1 && transferFunctionCalls > maxTransferFunctionCalls) {
+            return true;
+        }
+        return maxAnalysisMillis != -1
+                && (System.nanoTime() - analysisStartNanos) / 1000000 > maxAnalysisMillis;
+    }
+
     /**
      * Perform the actual analysis. Should only be called once after the object has been created.
      */
@@ -183,6 +234,10 @@ public class Analysis<
         init(cfg);
 
         while (!worklist.isEmpty()) {
+            if (hasExhaustedBudget()) {
+                budgetExceeded = true;
+                break;
+            }
             Block b = worklist.poll();
 
             switch (b.getType()) {
@@ -236,6 +291,10 @@ public class Analysis<
                         }
 
                         // propagate store to exceptional successors
+                        // A successor that is reached by several exception types without an
+                        // exceptional store gets the store before the node only once.
+                        Set<Block> regularStoreSuccs = null;
+                        Set<Block> lastSuccs = null;
                         for (Entry<TypeMirror, Set<Block>> e :
                                 eb.getExceptionalSuccessors().entrySet()) {
                             TypeMirror cause = e.getKey();
@@ -249,15 +308,23 @@ public class Analysis<
                                             Store.Kind.BOTH,
                                             addToWorklistAgain);
                                 }
-                            } else {
-                                for (Block exceptionSucc : e.getValue()) {
-                                    addStoreBefore(
-                                            exceptionSucc,
-                                            node,
-                                            inputBefore.copy().getRegularStore(),
-                                            Store.Kind.BOTH,
-                                            addToWorklistAgain);
+                            } else if (e.getValue() != lastSuccs) {
+                                // Sets of successors are often shared.
+                                lastSuccs = e.getValue();
+                                if (regularStoreSuccs == null) {
+                                    regularStoreSuccs = new LinkedHashSet<>();
                                 }
+                                regularStoreSuccs.addAll(lastSuccs);
+                            }
+                        }
+                        if (regularStoreSuccs != null) {
+                            for (Block exceptionSucc : regularStoreSuccs) {
+                                addStoreBefore(
+                                        exceptionSucc,
+                                        node,
+                                        inputBefore.copy().getRegularStore(),
+                                        Store.Kind.BOTH,
+                                        addToWorklistAgain);
                             }
                         }
                         break;
@@ -399,6 +466,7 @@ public class Analysis<
             // store.hasTwoStores()), or is the following correct?
             return new RegularTransferResult<A, S>(null, store.getRegularStore());
         }
+        transferFunctionCalls++;
         store.node = node;
         currentNode = node;
         TransferResult<A, S> transferResult = node.accept(transferFunction, store);
@@ -426,6 +494,9 @@ public class Analysis<
     /** Initialize the analysis with a new control flow graph. */
     protected void init(ControlFlowGraph cfg) {
         this.cfg = cfg;
+        transferFunctionCalls = 0;
+        analysisStartNanos = System.nanoTime();
+        budgetExceeded = false;
         thenStores = new IdentityHashMap<>();
         elseStores = new IdentityHashMap<>();
         blockCount = maxCountBeforeWidening == -1 ? null : new IdentityHashMap<Block, Integer>();
@@ -217,10 +217,29 @@ public class CFGBuilder {
     /** Can assertions be assumed to be enabled? */
     protected final boolean assumeAssertionsEnabled;
 
+    /**
+     * Should the unchecked exceptions that a node might throw share one exceptional edge per
+     * successor? If so, {@link Throwable}, {@link RuntimeException}, {@link Error}, and their
+     * subtypes are not distinguished in the exceptional successors of an {@link
+     * org.checkerframework.dataflow.cfg.block.ExceptionBlock}: they are represented by a single
+     * exception type whose successors are the union of theirs. This only loses precision for
+     * transfer functions that compute different exceptional stores for different unchecked
+     * exceptions.
+     */
+    protected final boolean coalesceUncheckedExceptions;
+
     public CFGBuilder(boolean assumeAssertionsEnabled, boolean assumeAssertionsDisabled) {
+        this(assumeAssertionsEnabled, assumeAssertionsDisabled, false);
+    }
+
+    public CFGBuilder(
+            boolean assumeAssertionsEnabled,
+            boolean assumeAssertionsDisabled,
+            boolean coalesceUncheckedExceptions) {
         assert !(assumeAssertionsDisabled && assumeAssertionsEnabled);
         this.assumeAssertionsEnabled = assumeAssertionsEnabled;
         this.assumeAssertionsDisabled = assumeAssertionsDisabled;
+        this.coalesceUncheckedExceptions = coalesceUncheckedExceptions;
     }
 
     /**
@@ -1259,6 +1278,12 @@ public class CFGBuilder {
                 }
             }
 
+            // share equal sets of exceptional successors
+            Map<Set<Block>, Set<Block>> successorSets = new HashMap<>();
+            for (Tuple<ExceptionBlockImpl, Integer, ?> p : missingExceptionalEdges) {
+                p.a.internExceptionalSuccessors(successorSets);
+            }
+
             return new ControlFlowGraph(
                     startBlock,
                     regularExitBlock,
@@ -1426,6 +1451,12 @@ public class CFGBuilder {
         /** Nested scopes of try-catch blocks in force at the current program point. */
         private TryStack tryStack;
 
+        /**
+         * The types {@link Throwable}, {@link RuntimeException}, and {@link Error}, used to
+         * coalesce unchecked exceptions.
+         */
+        private TypeMirror throwableType, runtimeExceptionType, errorType;
+
         /**
          * Performs the actual work of phase one.
          *
@@ -1450,6 +1481,12 @@ public class CFGBuilder {
             this.annotationProvider = annotationProvider;
             elements = env.getElementUtils();
             types = env.getTypeUtils();
+            if (coalesceUncheckedExceptions) {
+                throwableType = elements.getTypeElement("java.lang.Throwable").asType();
+                runtimeExceptionType =
+                        elements.getTypeElement("java.lang.RuntimeException").asType();
+                errorType = elements.getTypeElement("java.lang.Error").asType();
+            }
 
             // initialize lists and maps
             treeLookupMap = new IdentityHashMap<>();
@@ -1596,15 +1633,57 @@ public class CFGBuilder {
         protected NodeWithExceptionsHolder extendWithNodeWithExceptions(
                 Node node, Set<TypeMirror> causes) {
             addToLookupMap(node);
-            Map<TypeMirror, Set<Label>> exceptions = new HashMap<>();
-            for (TypeMirror cause : causes) {
-                exceptions.put(cause, tryStack.possibleLabels(cause));
-            }
+            Map<TypeMirror, Set<Label>> exceptions = exceptionalSuccessorLabels(causes);
             NodeWithExceptionsHolder exNode = new NodeWithExceptionsHolder(node, exceptions);
             extendWithExtendedNode(exNode);
             return exNode;
         }
 
+        /**
+         * Returns the labels of the possible successors of a node that might throw any of the
+         * exceptions in {@code causes}, for each exception type. If {@link
+         * #coalesceUncheckedExceptions} is set, the unchecked exceptions are represented by a
+         * single exception type, which is {@link Throwable} if there are several of them.
+         *
+         * @param causes set of exceptions that the node might throw
+         * @return a map from exception type to the labels of the successors for that type
+         */
+        protected Map<TypeMirror, Set<Label>> exceptionalSuccessorLabels(Set<TypeMirror> causes) {
+            Map<TypeMirror, Set<Label>> exceptions = new HashMap<>();
+            TypeMirror unchecked = null;
+            Set<Label> uncheckedLabels = null;
+            for (TypeMirror cause : causes) {
+                Set<Label> labels = tryStack.possibleLabels(cause);
+                if (coalesceUncheckedExceptions && isUnchecked(cause)) {
+                    if (uncheckedLabels == null) {
+                        unchecked = cause;
+                        uncheckedLabels = labels;
+                    } else {
+                        unchecked = throwableType;
+                        for (Label label : labels) {
+                            uncheckedLabels.add(label);
+                        }
+                    }
+                } else {
+                    exceptions.put(cause, labels);
+                }
+            }
+            if (unchecked != null) {
+                exceptions.put(unchecked, uncheckedLabels);
+            }
+            return exceptions;
+        }
+
+        /**
+         * Is {@code cause} {@link Throwable}, or a subtype of {@link RuntimeException} or {@link
+         * Error}?
+         */
+        private boolean isUnchecked(TypeMirror cause) {
+            return types.isSameType(cause, throwableType)
+                    || types.isSubtype(cause, runtimeExceptionType)
+                    || types.isSubtype(cause, errorType);
+        }
+
         /**
          * Insert {@code node} after {@code pred} in the list of extended nodes, or append to the
          * list if {@code pred} is not present.
@@ -1631,10 +1710,7 @@ public class CFGBuilder {
         protected NodeWithExceptionsHolder insertNodeWithExceptionsAfter(
                 Node node, Set<TypeMirror> causes, Node pred) {
             addToLookupMap(node);
-            Map<TypeMirror, Set<Label>> exceptions = new HashMap<>();
-            for (TypeMirror cause : causes) {
-                exceptions.put(cause, tryStack.possibleLabels(cause));
-            }
+            Map<TypeMirror, Set<Label>> exceptions = exceptionalSuccessorLabels(causes);
             NodeWithExceptionsHolder exNode = new NodeWithExceptionsHolder(node, exceptions);
             insertExtendedNodeAfter(exNode, pred);
             return exNode;
@@ -22,6 +22,9 @@ public interface ExceptionBlock extends SingleSuccessorBlock {
     /** @return the node of this block */
     Node getNode();
 
-    /** @return the list of exceptional successor blocks as an unmodifiable map */
+    /**
+     * @return the list of exceptional successor blocks as an unmodifiable map. Several exception
+     *     types, and several exception blocks, may map to the same set of successors.
+     */
     Map<TypeMirror, Set<Block>> getExceptionalSuccessors();
 }
@@ -15,7 +15,10 @@ import org.checkerframework.dataflow.cfg.node.Node;
  */
 public class ExceptionBlockImpl extends SingleSuccessorBlockImpl implements ExceptionBlock {
 
-    /** Set of exceptional successors. */
+    /**
+     * Set of exceptional successors. The sets of blocks are never modified, so that blocks with the
+     * same exceptional successors can share them.
+     */
     protected Map<TypeMirror, Set<Block>> exceptionalSuccessors;
 
     public ExceptionBlockImpl() {
@@ -44,13 +47,35 @@ public class ExceptionBlockImpl extends SingleSuccessorBlockImpl implements Exce
         }
         Set<Block> blocks = exceptionalSuccessors.get(cause);
         if (blocks == null) {
-            blocks = new HashSet<Block>();
-            exceptionalSuccessors.put(cause, blocks);
+            exceptionalSuccessors.put(cause, Collections.<Block>singleton(b));
+        } else if (!blocks.contains(b)) {
+            Set<Block> newBlocks = new HashSet<>(blocks);
+            newBlocks.add(b);
+            exceptionalSuccessors.put(cause, Collections.unmodifiableSet(newBlocks));
         }
-        blocks.add(b);
         b.addPredecessor(this);
     }
 
+    /**
+     * Replace each set of exceptional successors by the equal set in {@code pool}, or add it to the
+     * pool if there is none, so that all blocks with the same exceptional successors share one set.
+     *
+     * @param pool maps sets of exceptional successors to themselves
+     */
+    public void internExceptionalSuccessors(Map<Set<Block>, Set<Block>> pool) {
+        if (exceptionalSuccessors == null) {
+            return;
+        }
+        for (Map.Entry<TypeMirror, Set<Block>> entry : exceptionalSuccessors.entrySet()) {
+            Set<Block> interned = pool.get(entry.getValue());
+            if (interned == null) {
+                pool.put(entry.getValue(), entry.getValue());
+            } else {
+                entry.setValue(interned);
+            }
+        }
+    }
+
     @Override
     public Map<TypeMirror, Set<Block>> getExceptionalSuccessors() {
         if (exceptionalSuccessors == null) {
@@ -438,6 +438,17 @@ public class PurityChecker {
 
         @Override
         public PurityResult visitUnary(UnaryTree node, PurityResult p) {
+            switch (node.getKind()) {
+                case POSTFIX_DECREMENT:
+                case POSTFIX_INCREMENT:
+                case PREFIX_DECREMENT:
+                case PREFIX_INCREMENT:
+                    // ++ and -- assign to their operand
+                    p = assignmentCheck(p, TreeUtils.skipParens(node.getExpression()));
+                    break;
+                default:
+                    break;
+            }
             return scan(node.getExpression(), p);
         }
 
@@ -1,9 +1,7 @@
 package org.checkerframework.common.basetype;
 
 import com.sun.source.util.TreePath;
-import com.sun.tools.javac.processing.JavacProcessingEnvironment;
-import com.sun.tools.javac.util.Context;
-import com.sun.tools.javac.util.Log;
+import java.io.File;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
@@ -28,6 +26,7 @@ import org.checkerframework.framework.type.AnnotatedTypeFactory;
 import org.checkerframework.framework.type.GenericAnnotatedTypeFactory;
 import org.checkerframework.framework.type.QualifierHierarchy;
 import org.checkerframework.framework.type.TypeHierarchy;
+import org.checkerframework.framework.util.PuritySummaries;
 import org.checkerframework.javacutil.AbstractTypeProcessor;
 import org.checkerframework.javacutil.AnnotationProvider;
 import org.checkerframework.javacutil.ErrorReporter;
@@ -117,6 +116,12 @@ public abstract class BaseTypeChecker extends SourceChecker implements BaseTypeC
      */
     private List<BaseTypeChecker> immediateSubcheckers;
 
+    /**
+     * The inferred purity of methods. Only set for the checker that owns the summaries; see {@link
+     * #getPuritySummaries()}.
+     */
+    private PuritySummaries puritySummaries = null;
+
     /**
      * Returns the set of subchecker classes this checker depends on. Returns an empty set if this
      * checker does not depend on any others. Subclasses need to override this method if they have
@@ -416,8 +421,8 @@ public abstract class BaseTypeChecker extends SourceChecker implements BaseTypeC
         // If Java has issued errors, don't run any checkers on this compilation unit.
         // If a sub checker issued errors, run the next checker on this compilation unit.
 
-        // Log.nerrors counts the number of Java and checker errors have been issued.
-        // super.typeProcess does not typeProcess if log.nerrors > errorsOnLastExit
+        // getErrorCount() counts the number of Java and checker errors have been issued.
+        // super.typeProcess does not typeProcess if getErrorCount() > errorsOnLastExit
 
         // In order to run the next checker on this compilation unit even if the previous
         // issued errors, the next checker's errsOnLastExit needs to include all errors
@@ -425,18 +430,16 @@ public abstract class BaseTypeChecker extends SourceChecker implements BaseTypeC
 
         // To prevent any checkers from running if a Java error was issued for this compilation unit,
         // errsOnLastExit should not include any Java errors.
-        Context context = ((JavacProcessingEnvironment) processingEnv).getContext();
-        Log log = Log.instance(context);
         // Start with this.errsOnLastExit which will account for errors seen by
         // by a previous checker run in an aggregate checker.
         int nerrorsOfAllPreviousCheckers = this.errsOnLastExit;
         for (BaseTypeChecker checker : getSubcheckers()) {
             checker.errsOnLastExit = nerrorsOfAllPreviousCheckers;
-            int errorsBeforeTypeChecking = log.nerrors;
+            int errorsBeforeTypeChecking = getErrorCount();
 
             checker.typeProcess(element, tree);
 
-            int errorsAfterTypeChecking = log.nerrors;
+            int errorsAfterTypeChecking = getErrorCount();
             nerrorsOfAllPreviousCheckers += errorsAfterTypeChecking - errorsBeforeTypeChecking;
         }
         this.errsOnLastExit = nerrorsOfAllPreviousCheckers;
@@ -449,9 +452,31 @@ public abstract class BaseTypeChecker extends SourceChecker implements BaseTypeC
             checker.typeProcessingOver();
         }
 
+        if (puritySummaries != null) {
+            puritySummaries.write();
+        }
+
         super.typeProcessingOver();
     }
 
+    /**
+     * Returns the inferred purity of methods. A checker and all of its subcheckers share the
+     * summaries of the outermost BaseTypeChecker, which reads them from and writes them to the file
+     * given by the puritySummaries option.
+     *
+     * @return the purity summaries shared by this checker and the checkers it is part of
+     */
+    public PuritySummaries getPuritySummaries() {
+        if (parentChecker instanceof BaseTypeChecker) {
+            return ((BaseTypeChecker) parentChecker).getPuritySummaries();
+        }
+        if (puritySummaries == null) {
+            String fileName = getOption("puritySummaries");
+            puritySummaries = new PuritySummaries(fileName == null ? null : new File(fileName));
+        }
+        return puritySummaries;
+    }
+
     @Override
     public Set<String> getSupportedOptions() {
         Set<String> options = new HashSet<String>();
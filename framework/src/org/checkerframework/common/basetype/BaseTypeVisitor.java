@@ -45,6 +45,7 @@ import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -93,6 +94,7 @@ import org.checkerframework.framework.type.GenericAnnotatedTypeFactory;
 import org.checkerframework.framework.type.QualifierHierarchy;
 import org.checkerframework.framework.type.TypeHierarchy;
 import org.checkerframework.framework.type.VisitorState;
+import org.checkerframework.framework.type.visitor.AnnotatedTypeScanner;
 import org.checkerframework.framework.type.visitor.SimpleAnnotatedTypeScanner;
 import org.checkerframework.framework.util.AnnotatedTypes;
 import org.checkerframework.framework.util.ContractsUtils;
@@ -106,6 +108,7 @@ import org.checkerframework.framework.util.FlowExpressionParseUtil.FlowExpressio
 import org.checkerframework.framework.util.PluginUtil;
 import org.checkerframework.framework.util.QualifierPolymorphism;
 import org.checkerframework.javacutil.AnnotationUtils;
+import org.checkerframework.javacutil.CollectionUtils;
 import org.checkerframework.javacutil.ElementUtils;
 import org.checkerframework.javacutil.ErrorReporter;
 import org.checkerframework.javacutil.InternalUtils;
@@ -173,6 +176,26 @@ public class BaseTypeVisitor<Factory extends GenericAnnotatedTypeFactory<?, ?, ?
     /** An instance of the {@link ContractsUtils} helper class. */
     protected final ContractsUtils contractsUtils;
 
+    /**
+     * The supertypes of the class being visited and their methods, or null if no method of the
+     * class has been visited yet.
+     */
+    private /*@Nullable*/ OverrideIndex overrideIndex = null;
+
+    /** The maximum number of subtype tests memoized per class. */
+    private static final int ASSIGNMENT_CACHE_SIZE = 300;
+
+    /**
+     * The results of the subtype tests of pseudo-assignments in the class being visited. A class
+     * tends to assign values of the same types to variables of the same types, such as arguments to
+     * parameters of the same methods.
+     */
+    private Map<SubtypeTest, Boolean> assignmentSubtypeResults =
+            CollectionUtils.createLRUCache(ASSIGNMENT_CACHE_SIZE);
+
+    /** Was the baseline option given? */
+    private final boolean useBaseline;
+
     /**
      * @param checker the type-checker associated with this visitor (for callbacks to {@link
      *     TypeHierarchy#isSubtype})
@@ -187,6 +210,7 @@ public class BaseTypeVisitor<Factory extends GenericAnnotatedTypeFactory<?, ?, ?
         this.visitorState = atypeFactory.getVisitorState();
         this.typeValidator = createTypeValidator();
         this.vectorType = atypeFactory.fromElement(elements.getTypeElement("java.util.Vector"));
+        this.useBaseline = checker.hasOption("baseline");
     }
 
     protected BaseTypeVisitor(BaseTypeChecker checker, Factory typeFactory) {
@@ -199,6 +223,7 @@ public class BaseTypeVisitor<Factory extends GenericAnnotatedTypeFactory<?, ?, ?
         this.visitorState = atypeFactory.getVisitorState();
         this.typeValidator = createTypeValidator();
         this.vectorType = atypeFactory.fromElement(elements.getTypeElement("java.util.Vector"));
+        this.useBaseline = checker.hasOption("baseline");
     }
 
     /**
@@ -257,9 +282,29 @@ public class BaseTypeVisitor<Factory extends GenericAnnotatedTypeFactory<?, ?, ?
         if (tree != null && getCurrentPath() != null) {
             this.visitorState.setPath(new TreePath(getCurrentPath(), tree));
         }
+        if (tree != null && useBaseline && tree.getKind() == Tree.Kind.METHOD) {
+            return scanMethodWithBaseline((MethodTree) tree, p);
+        }
         return super.scan(tree, p);
     }
 
+    /**
+     * Visits a method, unless it did not change since its diagnostics were recorded in the
+     * baseline, in which case the recorded diagnostics are reported instead.
+     *
+     * @see org.checkerframework.framework.source.SourceChecker#isUnchangedSinceBaseline(MethodTree)
+     */
+    private Void scanMethodWithBaseline(MethodTree method, Void p) {
+        if (checker.isUnchangedSinceBaseline(method)) {
+            checker.reportBaselineDiagnostics(method);
+            return null;
+        }
+        checker.startBaselineRecording(method);
+        super.scan(method, p);
+        checker.finishBaselineRecording(method);
+        return null;
+    }
+
     /**
      * Type-check classTree and skips classes specified by the skipDef option. Subclasses should
      * override {@link #processClassTree(ClassTree)} instead of this method.
@@ -283,6 +328,10 @@ public class BaseTypeVisitor<Factory extends GenericAnnotatedTypeFactory<?, ?, ?
         AnnotatedDeclaredType preAMT = visitorState.getMethodReceiver();
         MethodTree preMT = visitorState.getMethodTree();
         Pair<Tree, AnnotatedTypeMirror> preAssCtxt = visitorState.getAssignmentContext();
+        OverrideIndex preOI = overrideIndex;
+        Map<SubtypeTest, Boolean> preASR = assignmentSubtypeResults;
+        overrideIndex = null;
+        assignmentSubtypeResults = CollectionUtils.createLRUCache(ASSIGNMENT_CACHE_SIZE);
         visitorState.setClassType(atypeFactory.getAnnotatedType(classTree));
         visitorState.setClassTree(classTree);
         visitorState.setMethodReceiver(null);
@@ -297,6 +346,8 @@ public class BaseTypeVisitor<Factory extends GenericAnnotatedTypeFactory<?, ?, ?
             this.visitorState.setMethodReceiver(preAMT);
             this.visitorState.setMethodTree(preMT);
             this.visitorState.setAssignmentContext(preAssCtxt);
+            this.overrideIndex = preOI;
+            this.assignmentSubtypeResults = preASR;
         }
         return null;
     }
@@ -440,13 +491,15 @@ public class BaseTypeVisitor<Factory extends GenericAnnotatedTypeFactory<?, ?, ?
                 atypeFactory.getDependentTypesHelper().checkMethod(node, methodType);
             }
 
-            AnnotatedDeclaredType enclosingType =
-                    (AnnotatedDeclaredType)
-                            atypeFactory.getAnnotatedType(methodElement.getEnclosingElement());
+            TypeElement enclosingElement = (TypeElement) methodElement.getEnclosingElement();
+            if (overrideIndex == null || overrideIndex.classElement != enclosingElement) {
+                overrideIndex = new OverrideIndex(enclosingElement);
+            }
+            AnnotatedDeclaredType enclosingType = overrideIndex.classType.deepCopy();
 
             // Find which method this overrides!
             Map<AnnotatedDeclaredType, ExecutableElement> overriddenMethods =
-                    AnnotatedTypes.overriddenMethods(elements, atypeFactory, methodElement);
+                    overrideIndex.overriddenMethods(methodElement);
             for (Map.Entry<AnnotatedDeclaredType, ExecutableElement> pair :
                     overriddenMethods.entrySet()) {
                 AnnotatedDeclaredType overriddenType = pair.getKey();
@@ -1663,7 +1716,7 @@ public class BaseTypeVisitor<Factory extends GenericAnnotatedTypeFactory<?, ?, ?
                     varType.toString());
         }
 
-        boolean success = atypeFactory.getTypeHierarchy().isSubtype(valueType, varType);
+        boolean success = isSubtypeMemoized(valueType, varType);
 
         // TODO: integrate with subtype test.
         if (success) {
@@ -1713,6 +1766,97 @@ public class BaseTypeVisitor<Factory extends GenericAnnotatedTypeFactory<?, ?, ?
         }
     }
 
+    /**
+     * Returns true if {@code valueType} is a subtype of {@code varType}. The result is memoized for
+     * the class being visited.
+     */
+    private boolean isSubtypeMemoized(AnnotatedTypeMirror valueType, AnnotatedTypeMirror varType) {
+        String flags =
+                getRawAndUninferredFlags(valueType) + ';' + getRawAndUninferredFlags(varType);
+        SubtypeTest test = new SubtypeTest(valueType, varType, flags);
+        Boolean result = assignmentSubtypeResults.get(test);
+        if (result == null) {
+            // Copy the types first: the key must not change when the types are modified later.
+            test = new SubtypeTest(valueType.deepCopy(), varType.deepCopy(), flags);
+            result = atypeFactory.getTypeHierarchy().isSubtype(valueType, varType);
+            assignmentSubtypeResults.put(test, result);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the positions, in the order in which the components of {@code type} are scanned, of
+     * the raw declared types and the uninferred type arguments in {@code type}. {@link
+     * AnnotatedTypeMirror#equals} ignores both, but the type hierarchy does not.
+     */
+    private static String getRawAndUninferredFlags(AnnotatedTypeMirror type) {
+        final StringBuilder flags = new StringBuilder();
+        new AnnotatedTypeScanner<Void, Void>() {
+            private int position = 0;
+
+            @Override
+            public Void visitDeclared(AnnotatedDeclaredType type, Void p) {
+                if (type.wasRaw()) {
+                    flags.append('r').append(position);
+                }
+                position++;
+                return super.visitDeclared(type, p);
+            }
+
+            @Override
+            public Void visitWildcard(AnnotatedWildcardType type, Void p) {
+                if (type.isUninferredTypeArgument()) {
+                    flags.append('u').append(position);
+                }
+                position++;
+                return super.visitWildcard(type, p);
+            }
+        }.visit(type);
+        return flags.toString();
+    }
+
+    /**
+     * A subtype test of two types, which are compared with {@link AnnotatedTypeMirror#equals},
+     * together with the flags that {@code equals} ignores.
+     */
+    private static class SubtypeTest {
+        private final AnnotatedTypeMirror subtype;
+        private final AnnotatedTypeMirror supertype;
+
+        /** The raw and uninferred flags of both types. */
+        private final String flags;
+
+        private final int hashCode;
+
+        SubtypeTest(AnnotatedTypeMirror subtype, AnnotatedTypeMirror supertype, String flags) {
+            this.subtype = subtype;
+            this.supertype = supertype;
+            this.flags = flags;
+            this.hashCode =
+                    31 * (31 * subtype.hashCode() + supertype.hashCode()) + flags.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof SubtypeTest)) {
+                return false;
+            }
+            SubtypeTest other = (SubtypeTest) o;
+            // AnnotatedTypeMirror#equals only compares types of the same class.
+            return hashCode == other.hashCode
+                    && subtype.getClass() == other.subtype.getClass()
+                    && supertype.getClass() == other.supertype.getClass()
+                    && flags.equals(other.flags)
+                    && subtype.equals(other.subtype)
+                    && supertype.equals(other.supertype);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
     /**
      * Return whether or not the verbose toString should be used when printing the two annotated
      * types.
@@ -2110,6 +2254,77 @@ public class BaseTypeVisitor<Factory extends GenericAnnotatedTypeFactory<?, ?, ?
         return false;
     }
 
+    /**
+     * The supertypes of a class and the methods they declare, indexed by name. A class with many
+     * methods and supertypes, such as one implementing a large interface, would otherwise compute
+     * its supertypes and scan all of their methods once per method.
+     */
+    private class OverrideIndex {
+        /** The class. */
+        final TypeElement classElement;
+
+        /** The type of the class. */
+        final AnnotatedDeclaredType classType;
+
+        /** The supertypes of the class, as returned by {@link AnnotatedTypes#getSuperTypes}. */
+        final List<AnnotatedDeclaredType> supertypes;
+
+        /** The methods of each of {@link #supertypes}, by name. */
+        final List<Map<Name, List<ExecutableElement>>> supertypeMethods;
+
+        OverrideIndex(TypeElement classElement) {
+            this.classElement = classElement;
+            this.classType = atypeFactory.getAnnotatedType(classElement);
+            this.supertypes =
+                    new ArrayList<>(
+                            AnnotatedTypes.getSuperTypes(
+                                    atypeFactory.getAnnotatedType(classElement)));
+            this.supertypeMethods = new ArrayList<>(supertypes.size());
+            for (AnnotatedDeclaredType supertype : supertypes) {
+                TypeElement superElement = (TypeElement) supertype.getUnderlyingType().asElement();
+                Map<Name, List<ExecutableElement>> methods = new HashMap<>();
+                for (ExecutableElement method :
+                        ElementFilter.methodsIn(superElement.getEnclosedElements())) {
+                    List<ExecutableElement> sameName = methods.get(method.getSimpleName());
+                    if (sameName == null) {
+                        sameName = new ArrayList<>(1);
+                        methods.put(method.getSimpleName(), sameName);
+                    }
+                    sameName.add(method);
+                }
+                supertypeMethods.add(methods);
+            }
+        }
+
+        /**
+         * Returns the methods that {@code method} overrides, like {@link
+         * AnnotatedTypes#overriddenMethods(javax.lang.model.util.Elements, AnnotatedTypeFactory,
+         * ExecutableElement)}, but only compares it to methods with the same name.
+         *
+         * @param method a method of the class
+         * @return the methods that {@code method} overrides, keyed by a copy of their class type
+         */
+        Map<AnnotatedDeclaredType, ExecutableElement> overriddenMethods(ExecutableElement method) {
+            Map<AnnotatedDeclaredType, ExecutableElement> overrides = new LinkedHashMap<>();
+            for (int i = 0; i < supertypes.size(); i++) {
+                List<ExecutableElement> candidates =
+                        supertypeMethods.get(i).get(method.getSimpleName());
+                if (candidates == null) {
+                    continue;
+                }
+                AnnotatedDeclaredType supertype = supertypes.get(i);
+                TypeElement superElement = (TypeElement) supertype.getUnderlyingType().asElement();
+                for (ExecutableElement supermethod : candidates) {
+                    if (elements.overrides(method, supermethod, superElement)) {
+                        overrides.put(supertype.deepCopy(), supermethod);
+                        break;
+                    }
+                }
+            }
+            return overrides;
+        }
+    }
+
     /**
      * Type checks that a method may override another method. Uses the OverrideChecker class.
      *
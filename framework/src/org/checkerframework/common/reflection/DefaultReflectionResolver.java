@@ -31,9 +31,11 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
 import javax.lang.model.element.ElementKind;
 import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.VariableElement;
@@ -51,6 +53,7 @@ import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedArrayTyp
 import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedExecutableType;
 import org.checkerframework.javacutil.AnnotationProvider;
 import org.checkerframework.javacutil.AnnotationUtils;
+import org.checkerframework.javacutil.CollectionUtils;
 import org.checkerframework.javacutil.InternalUtils;
 import org.checkerframework.javacutil.Pair;
 import org.checkerframework.javacutil.TreeUtils;
@@ -76,6 +79,33 @@ public class DefaultReflectionResolver implements ReflectionResolver {
     private final Trees trees;
     private final boolean debug;
 
+    private static final int CACHE_SIZE = 300;
+
+    /**
+     * The candidate trees of the reflective method calls that were resolved, with the {@link
+     * MethodVal} annotation they were resolved for. A call is resolved again whenever the type
+     * factory computes its type, so the candidates are reused as long as the annotation does not
+     * change.
+     */
+    private final Map<MethodInvocationTree, Pair<AnnotationMirror, List<MethodInvocationTree>>>
+            resolvedMethods = CollectionUtils.createLRUCache(CACHE_SIZE);
+
+    /** The candidate trees of the reflective constructor calls that were resolved. */
+    private final Map<MethodInvocationTree, Pair<AnnotationMirror, List<JCNewClass>>>
+            resolvedConstructors = CollectionUtils.createLRUCache(CACHE_SIZE);
+
+    /**
+     * Maps the class that contains a reflective call and a method or constructor description from a
+     * {@link MethodVal} annotation to the symbols it resolves to. Calls in the same class with the
+     * same {@link MethodVal} annotation share the symbols. The class matters because the
+     * accessibility of the reflectively named class depends on it.
+     */
+    private final Map<Pair<Element, String>, List<Symbol>> resolvedSymbols =
+            CollectionUtils.createLRUCache(CACHE_SIZE);
+
+    /** The method {@code Resolve.loadClass(Env, Name)}, or null if it has not been looked up. */
+    private static Method loadClass;
+
     public DefaultReflectionResolver(
             BaseTypeChecker checker,
             MethodValAnnotatedTypeFactory methodValProvider,
@@ -326,12 +356,6 @@ public class DefaultReflectionResolver implements ReflectionResolver {
         assert isReflectiveMethodInvocation(tree);
         JCMethodInvocation methodInvocation = (JCMethodInvocation) tree;
 
-        Context context = ((JavacProcessingEnvironment) processingEnv).getContext();
-        TreeMaker make = TreeMaker.instance(context);
-        TreePath path = reflectionFactory.getPath(tree);
-        JavacScope scope = (JavacScope) trees.getScope(path);
-        Env<AttrContext> env = scope.getEnv();
-
         List<MethodInvocationTree> methods = new ArrayList<>();
 
         boolean unknown = isUnknownMethod(tree);
@@ -346,6 +370,17 @@ public class DefaultReflectionResolver implements ReflectionResolver {
 
         debugReflection("MethodVal type system annotations: " + estimate);
 
+        Pair<AnnotationMirror, List<MethodInvocationTree>> cached = resolvedMethods.get(tree);
+        if (cached != null && AnnotationUtils.areSame(cached.first, estimate)) {
+            return cached.second;
+        }
+
+        Context context = ((JavacProcessingEnvironment) processingEnv).getContext();
+        TreeMaker make = TreeMaker.instance(context);
+        TreePath path = reflectionFactory.getPath(tree);
+        Element site = TreeUtils.elementFromDeclaration(TreeUtils.enclosingClass(path));
+        Env<AttrContext> env = null;
+
         List<String> listClassNames =
                 AnnotationUtils.getElementValueArray(estimate, "className", String.class, true);
         List<String> listMethodNames =
@@ -367,7 +402,17 @@ public class DefaultReflectionResolver implements ReflectionResolver {
             com.sun.tools.javac.util.List<JCExpression> args = methodInvocation.args.tail;
 
             // Resolve the Symbol(s) for the current method
-            for (Symbol symbol : getMethodSymbolsfor(className, methodName, paramLength, env)) {
+            Pair<Element, String> key =
+                    Pair.of(site, className + "." + methodName + "/" + paramLength);
+            List<Symbol> symbols = resolvedSymbols.get(key);
+            if (symbols == null) {
+                if (env == null) {
+                    env = getEnv(path);
+                }
+                symbols = getMethodSymbolsfor(className, methodName, paramLength, env);
+                resolvedSymbols.put(key, symbols);
+            }
+            for (Symbol symbol : symbols) {
                 if ((symbol.flags() & Flags.PUBLIC) > 0) {
                     debugReflection("Resolved public method: " + symbol.owner + "." + symbol);
                 } else {
@@ -385,9 +430,16 @@ public class DefaultReflectionResolver implements ReflectionResolver {
                 methods.add(syntTree);
             }
         }
+        resolvedMethods.put(tree, Pair.of(estimate, methods));
         return methods;
     }
 
+    /** Returns the javac environment of the code at {@code path}. */
+    private Env<AttrContext> getEnv(TreePath path) {
+        JavacScope scope = (JavacScope) trees.getScope(path);
+        return scope.getEnv();
+    }
+
     private com.sun.tools.javac.util.List<JCExpression> getCorrectedArgs(
             Symbol symbol, com.sun.tools.javac.util.List<JCExpression> args) {
         if (symbol.getKind() == ElementKind.METHOD) {
@@ -426,12 +478,6 @@ public class DefaultReflectionResolver implements ReflectionResolver {
         assert isReflectiveMethodInvocation(tree);
         JCMethodInvocation methodInvocation = (JCMethodInvocation) tree;
 
-        Context context = ((JavacProcessingEnvironment) processingEnv).getContext();
-        TreeMaker make = TreeMaker.instance(context);
-        TreePath path = reflectionFactory.getPath(tree);
-        JavacScope scope = (JavacScope) trees.getScope(path);
-        Env<AttrContext> env = scope.getEnv();
-
         List<JCNewClass> constructors = new ArrayList<>();
 
         AnnotationMirror estimate = getMethodVal(tree);
@@ -444,6 +490,17 @@ public class DefaultReflectionResolver implements ReflectionResolver {
 
         debugReflection("MethodVal type system annotations: " + estimate);
 
+        Pair<AnnotationMirror, List<JCNewClass>> cached = resolvedConstructors.get(tree);
+        if (cached != null && AnnotationUtils.areSame(cached.first, estimate)) {
+            return cached.second;
+        }
+
+        Context context = ((JavacProcessingEnvironment) processingEnv).getContext();
+        TreeMaker make = TreeMaker.instance(context);
+        TreePath path = reflectionFactory.getPath(tree);
+        Element site = TreeUtils.elementFromDeclaration(TreeUtils.enclosingClass(path));
+        Env<AttrContext> env = null;
+
         List<String> listClassNames =
                 AnnotationUtils.getElementValueArray(estimate, "className", String.class, true);
         List<Integer> listParamLenghts =
@@ -455,7 +512,16 @@ public class DefaultReflectionResolver implements ReflectionResolver {
             int paramLength = listParamLenghts.get(i);
 
             // Resolve the Symbol for the current constructor
-            for (Symbol symbol : getConstructorSymbolsfor(className, paramLength, env)) {
+            Pair<Element, String> key = Pair.of(site, className + "." + INIT + "/" + paramLength);
+            List<Symbol> symbols = resolvedSymbols.get(key);
+            if (symbols == null) {
+                if (env == null) {
+                    env = getEnv(path);
+                }
+                symbols = getConstructorSymbolsfor(className, paramLength, env);
+                resolvedSymbols.put(key, symbols);
+            }
+            for (Symbol symbol : symbols) {
                 debugReflection("Resolved constructor: " + symbol.owner + "." + symbol);
 
                 JCNewClass syntTree = (JCNewClass) make.Create(symbol, methodInvocation.args);
@@ -465,6 +531,7 @@ public class DefaultReflectionResolver implements ReflectionResolver {
                 constructors.add(syntTree);
             }
         }
+        resolvedConstructors.put(tree, Pair.of(estimate, constructors));
         return constructors;
     }
 
@@ -490,9 +557,7 @@ public class DefaultReflectionResolver implements ReflectionResolver {
 
         List<Symbol> result = new LinkedList<>();
         try {
-            Method loadClass = Resolve.class.getDeclaredMethod("loadClass", Env.class, Name.class);
-            loadClass.setAccessible(true);
-            Symbol sym = (Symbol) loadClass.invoke(resolve, env, names.fromString(className));
+            Symbol sym = loadClass(resolve, env, names.fromString(className));
             if (!sym.exists()) {
                 debugReflection("Unable to resolve class: " + className);
                 return Collections.emptyList();
@@ -546,9 +611,7 @@ public class DefaultReflectionResolver implements ReflectionResolver {
 
         List<Symbol> result = new LinkedList<>();
         try {
-            Method loadClass = Resolve.class.getDeclaredMethod("loadClass", Env.class, Name.class);
-            loadClass.setAccessible(true);
-            Symbol symClass = (Symbol) loadClass.invoke(resolve, env, names.fromString(className));
+            Symbol symClass = loadClass(resolve, env, names.fromString(className));
             if (!symClass.exists()) {
                 debugReflection("Unable to resolve class: " + className);
                 return Collections.emptyList();
@@ -580,6 +643,17 @@ public class DefaultReflectionResolver implements ReflectionResolver {
         return result;
     }
 
+    /** Calls the non-public method {@code Resolve.loadClass(Env, Name)}. */
+    private static Symbol loadClass(Resolve resolve, Env<AttrContext> env, Name name)
+            throws NoSuchMethodException, IllegalAccessException, InvocationTargetException {
+        if (loadClass == null) {
+            Method method = Resolve.class.getDeclaredMethod("loadClass", Env.class, Name.class);
+            method.setAccessible(true);
+            loadClass = method;
+        }
+        return (Symbol) loadClass.invoke(resolve, env, name);
+    }
+
     /**
      * Build lub of the two types (represented by sets {@code set1} and {@code set2}) using the
      * provided AnnotatedTypeFactory.
@@ -33,6 +33,7 @@ import org.checkerframework.dataflow.qual.SideEffectFree;
 import org.checkerframework.dataflow.util.PurityUtils;
 import org.checkerframework.framework.qual.MonotonicQualifier;
 import org.checkerframework.framework.type.AnnotatedTypeFactory;
+import org.checkerframework.framework.type.GenericAnnotatedTypeFactory;
 import org.checkerframework.javacutil.AnnotationUtils;
 import org.checkerframework.javacutil.Pair;
 
@@ -156,6 +157,10 @@ public abstract class CFAbstractStore<V extends CFAbstractValue<V>, S extends CF
      */
     protected boolean isSideEffectFree(
             AnnotatedTypeFactory atypeFactory, ExecutableElement method) {
+        if (atypeFactory instanceof GenericAnnotatedTypeFactory) {
+            return ((GenericAnnotatedTypeFactory<?, ?, ?, ?>) atypeFactory)
+                    .isSideEffectFree(method);
+        }
         return PurityUtils.isSideEffectFree(atypeFactory, method);
     }
 
@@ -257,6 +262,14 @@ public abstract class CFAbstractStore<V extends CFAbstractValue<V>, S extends CF
         insertValue(r, analysis.createSingleAnnotationValue(a, r.getType()));
     }
 
+    /**
+     * Returns true if values of {@code r} should be stored, i.e. if its type is relevant for the
+     * checker. See {@link GenericAnnotatedTypeFactory#isRelevantForFlow}.
+     */
+    protected boolean isRelevant(Receiver r) {
+        return analysis.getTypeFactory().isRelevantForFlow(r.getType());
+    }
+
     /** Returns true if the receiver {@code r} can be stored in this store. */
     public static boolean canInsertReceiver(Receiver r) {
         if (r instanceof FlowExpressions.FieldAccess
@@ -291,6 +304,10 @@ public abstract class CFAbstractStore<V extends CFAbstractValue<V>, S extends CF
             // Expressions containing unknown expressions are not stored.
             return;
         }
+        if (!isRelevant(r)) {
+            // Values of irrelevant types are not tracked with the sparseFlow option.
+            return;
+        }
         if (r instanceof FlowExpressions.LocalVariable) {
             FlowExpressions.LocalVariable localVar = (FlowExpressions.LocalVariable) r;
             V oldValue = localVariableValues.get(localVar);
@@ -504,6 +521,10 @@ public abstract class CFAbstractStore<V extends CFAbstractValue<V>, S extends CF
     /** Update the information in the store by considering an assignment with target {@code n}. */
     public void updateForAssignment(Node n, /*@Nullable*/ V val) {
         Receiver receiver = FlowExpressions.internalReprOf(analysis.getTypeFactory(), n);
+        if (!isRelevant(receiver)) {
+            // Still remove the information that the assignment invalidates.
+            val = null;
+        }
         if (receiver instanceof ArrayAccess) {
             updateForArrayAssignment((ArrayAccess) receiver, val);
         } else if (receiver instanceof FieldAccess) {
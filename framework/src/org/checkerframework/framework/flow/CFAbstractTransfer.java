@@ -545,7 +545,8 @@ public abstract class CFAbstractTransfer<
         // TODO: handle implicit/explicit this and go to correct factory method
         Tree tree = n.getTree();
         if (tree != null) {
-            if (TreeUtils.canHaveTypeAnnotation(tree)) {
+            if (TreeUtils.canHaveTypeAnnotation(tree)
+                    && analysis.atypeFactory.isRelevantForFlow(n.getType())) {
                 value = getValueFromFactory(tree, n);
             }
         }
@@ -1,5 +1,9 @@
 package org.checkerframework.framework.flow;
 
+/*>>>
+import org.checkerframework.checker.nullness.qual.Nullable;
+*/
+
 import com.sun.source.tree.AssertTree;
 import com.sun.source.tree.ClassTree;
 import com.sun.source.tree.CompilationUnitTree;
@@ -37,9 +41,12 @@ public class CFCFGBuilder extends CFGBuilder {
     protected final AnnotatedTypeFactory factory;
 
     public CFCFGBuilder(BaseTypeChecker checker, AnnotatedTypeFactory factory) {
+        // The transfer functions of the Checker Framework compute no exceptional stores, so
+        // distinguishing unchecked exceptions in the control flow graph gains nothing.
         super(
                 checker.hasOption("assumeAssertionsAreEnabled"),
-                checker.hasOption("assumeAssertionsAreDisabled"));
+                checker.hasOption("assumeAssertionsAreDisabled"),
+                true);
         if (assumeAssertionsEnabled && assumeAssertionsDisabled) {
             ErrorReporter.errorAbort(
                     "Assertions cannot be assumed to be enabled and disabled at the same time.");
@@ -95,20 +102,32 @@ public class CFCFGBuilder extends CFGBuilder {
             return super.assumeAssertionsEnabledFor(tree);
         }
 
+        /**
+         * The method or class that encloses the code whose control flow graph is built, or null if
+         * it has not been computed yet. All artificial trees have the same enclosing element, since
+         * the builder does not descend into nested classes.
+         */
+        private /*@Nullable*/ Element artificialTreeEnclosingElement = null;
+
         @Override
         public void handleArtificialTree(Tree tree) {
             // Record the method or class that encloses the newly created tree.
-            MethodTree enclosingMethod = TreeUtils.enclosingMethod(getCurrentPath());
-            if (enclosingMethod != null) {
-                Element methodElement = TreeUtils.elementFromDeclaration(enclosingMethod);
-                factory.setPathHack(tree, methodElement);
-            } else {
-                ClassTree enclosingClass = TreeUtils.enclosingClass(getCurrentPath());
-                if (enclosingClass != null) {
-                    Element classElement = TreeUtils.elementFromDeclaration(enclosingClass);
-                    factory.setPathHack(tree, classElement);
+            if (artificialTreeEnclosingElement == null) {
+                MethodTree enclosingMethod = TreeUtils.enclosingMethod(getCurrentPath());
+                if (enclosingMethod != null) {
+                    artificialTreeEnclosingElement =
+                            TreeUtils.elementFromDeclaration(enclosingMethod);
+                } else {
+                    ClassTree enclosingClass = TreeUtils.enclosingClass(getCurrentPath());
+                    if (enclosingClass != null) {
+                        artificialTreeEnclosingElement =
+                                TreeUtils.elementFromDeclaration(enclosingClass);
+                    }
                 }
             }
+            if (artificialTreeEnclosingElement != null) {
+                factory.setPathHack(tree, artificialTreeEnclosingElement);
+            }
         }
 
         @Override
@@ -1,9 +1,6 @@
 package org.checkerframework.framework.source;
 
 import com.sun.source.util.TreePath;
-import com.sun.tools.javac.processing.JavacProcessingEnvironment;
-import com.sun.tools.javac.util.Context;
-import com.sun.tools.javac.util.Log;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -97,13 +94,11 @@ public abstract class AggregateChecker extends SourceChecker {
     // AbstractTypeProcessor delegation
     @Override
     public final void typeProcess(TypeElement element, TreePath tree) {
-        Context context = ((JavacProcessingEnvironment) processingEnv).getContext();
-        Log log = Log.instance(context);
-        if (log.nerrors > this.errsOnLastExit) {
+        if (getErrorCount() > this.errsOnLastExit) {
             // If there is a Java error, do not perform any
             // of the component type checks, but come back
             // for the next compilation unit.
-            this.errsOnLastExit = log.nerrors;
+            this.errsOnLastExit = getErrorCount();
             return;
         }
         if (!allCheckersInited) {
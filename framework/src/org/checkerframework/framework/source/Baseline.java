@@ -0,0 +1,832 @@
+package org.checkerframework.framework.source;
+
+/*>>>
+import org.checkerframework.checker.nullness.qual.Nullable;
+*/
+
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.IdentifierTree;
+import com.sun.source.tree.MemberReferenceTree;
+import com.sun.source.tree.MemberSelectTree;
+import com.sun.source.tree.MethodTree;
+import com.sun.source.tree.NewClassTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.util.SourcePositions;
+import com.sun.source.util.TreeScanner;
+import com.sun.source.util.Trees;
+import com.sun.tools.javac.util.Context;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.Parameterizable;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.TypeParameterElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.util.Elements;
+import javax.tools.Diagnostic;
+import org.checkerframework.framework.qual.StubFiles;
+import org.checkerframework.framework.stub.StubResource;
+import org.checkerframework.framework.stub.StubUtil;
+import org.checkerframework.javacutil.ElementUtils;
+import org.checkerframework.javacutil.ErrorReporter;
+import org.checkerframework.javacutil.InternalUtils;
+import org.checkerframework.javacutil.TreeUtils;
+
+/**
+ * The diagnostics of methods as of an earlier compilation, which let the checkers skip the methods
+ * that did not change since. The baseline is read from and written to the file given by the
+ * baseline option.
+ *
+ * <p>For each method of a top-level or member class, the baseline records a hash and, for each
+ * checker, the diagnostics that the checker reported while visiting the method. If the hash of a
+ * method is the same as in the baseline, and the baseline has the diagnostics of every checker of
+ * the compilation for it, the checkers neither analyze nor visit the method, but report its
+ * recorded diagnostics again.
+ *
+ * <p>The hash of a method covers its source text; the supertypes, annotations, and member
+ * signatures of the classes that enclose it, and the annotations of its package; the signatures of
+ * the methods that it overrides; and the signatures and the annotations of the enclosing classes of
+ * the methods, constructors, fields, and types that it refers to. A change to any other
+ * declaration, such as a field initializer or the supertype of a class that the method uses, is not
+ * detected.
+ *
+ * <p>The file starts with a fingerprint of the compilation: the options of the checkers, the source
+ * version, the stub files, and the version and the modification time of the code of the checkers
+ * and of the framework. If the fingerprint of the file differs from that of the compilation, the
+ * entries of the file are discarded, and the file is written anew.
+ *
+ * <p>The file is a log: the entries of the methods that are checked are appended to it, and an
+ * entry replaces any earlier entry of the same checker and method. The fingerprint is a line
+ * consisting of F and the fingerprint. Each entry is a line consisting of M, the checker, the
+ * verbose name of the method as returned by {@link ElementUtils#getVerboseName}, and the hash,
+ * followed by one line per diagnostic consisting of D, the diagnostic kind, the message key, the
+ * start and end positions relative to the start of the method, and the message arguments. The
+ * fields are separated by tabs and escaped as by {@link DiagnosticSink}. Replaced entries are
+ * removed when the file is read.
+ */
+public class Baseline {
+
+    /** The key of the compilation-wide instance in the compiler's context. */
+    private static final Context.Key<Baseline> KEY = new Context.Key<>();
+
+    /** The options that do not change the diagnostics that are recorded. */
+    private static final List<String> IGNORED_OPTIONS =
+            Arrays.asList("baseline", "dropBaselined", "diagnosticsFile");
+
+    /** The file that the baseline is read from and appended to. */
+    private final File file;
+
+    /** Used to find the source positions of methods. */
+    private final Trees trees;
+
+    /** Used to find the methods that a method overrides. */
+    private final Elements elements;
+
+    /** The names of the checkers of the compilation. */
+    private final Set<String> checkers = new LinkedHashSet<>();
+
+    /** The digest of the fingerprint of the compilation, to which the checkers are added. */
+    private final MessageDigest fingerprint = newDigest();
+
+    /** Was {@link #file} read? It is read when the first method is looked up. */
+    private boolean loaded = false;
+
+    /** Maps the verbose name of a method to the entries of the checkers for it. */
+    private final Map<String, Map<String, Entry>> entries = new HashMap<>();
+
+    /** The writer that appends to {@link #file}, or null if it is not open. */
+    private /*@Nullable*/ Writer out;
+
+    /** The compilation unit of the methods in {@link #methods}. */
+    private /*@Nullable*/ CompilationUnitTree root;
+
+    /** The source text of {@link #root}, or null if it has not been read yet. */
+    private /*@Nullable*/ CharSequence source;
+
+    /**
+     * The methods of {@link #root} that were looked up, or null for methods that are not recorded.
+     */
+    private final Map<MethodTree, /*@Nullable*/ Method> methods = new IdentityHashMap<>();
+
+    /** The signatures of the classes that enclose methods of {@link #root}. */
+    private final Map<TypeElement, String> classSignatures = new HashMap<>();
+
+    /** A method that may be recorded in the baseline. */
+    static class Method {
+        /** The verbose name of the method. */
+        final String name;
+
+        /** The hash of the source text of the method. */
+        final String hash;
+
+        /** The start position of the method. */
+        final long start;
+
+        Method(String name, String hash, long start) {
+            this.name = name;
+            this.hash = hash;
+            this.start = start;
+        }
+    }
+
+    /** The diagnostics of one checker for one method. */
+    static class Entry {
+        /** The hash of the source text of the method. */
+        final String hash;
+
+        /** The diagnostics. */
+        final List<Recorded> diagnostics = new ArrayList<>();
+
+        Entry(String hash) {
+            this.hash = hash;
+        }
+    }
+
+    /** A recorded diagnostic. */
+    static class Recorded {
+        final Diagnostic.Kind kind;
+        final String msgKey;
+
+        /** The start position relative to the start of the method, or -1. */
+        final long start;
+
+        /** The end position relative to the start of the method, or -1. */
+        final long end;
+
+        /** The message arguments, as strings. */
+        final String[] args;
+
+        Recorded(Diagnostic.Kind kind, String msgKey, long start, long end, String[] args) {
+            this.kind = kind;
+            this.msgKey = msgKey;
+            this.start = start;
+            this.end = end;
+            this.args = args;
+        }
+    }
+
+    /**
+     * Returns the baseline of the compilation with context {@code context}, creating it if
+     * necessary.
+     *
+     * @param context the compiler's context
+     * @param env the processing environment of the compilation
+     * @param filename the file that the baseline is read from and appended to
+     * @return the baseline of the compilation
+     */
+    static Baseline instance(Context context, ProcessingEnvironment env, String filename) {
+        Baseline instance = context.get(KEY);
+        if (instance == null) {
+            instance = new Baseline(new File(filename), env);
+            context.put(KEY, instance);
+        }
+        return instance;
+    }
+
+    private Baseline(File file, ProcessingEnvironment env) {
+        this.file = file;
+        this.trees = Trees.instance(env);
+        this.elements = env.getElementUtils();
+
+        update(fingerprint, "source " + env.getSourceVersion());
+        Map<String, String> options = new TreeMap<>(env.getOptions());
+        options.keySet().removeAll(IGNORED_OPTIONS);
+        for (Map.Entry<String, String> option : options.entrySet()) {
+            update(fingerprint, "option " + option.getKey() + "=" + option.getValue());
+            if (option.getValue() != null
+                    && (option.getKey().equals("stubs") || option.getKey().endsWith("_stubs"))) {
+                addStubFiles(option.getValue(), null);
+            }
+        }
+        String stubsProperty = System.getProperty("stubs");
+        if (stubsProperty != null) {
+            addStubFiles(stubsProperty, null);
+        }
+        String stubsEnvVar = System.getenv("stubs");
+        if (stubsEnvVar != null) {
+            addStubFiles(stubsEnvVar, null);
+        }
+        addCode(SourceChecker.class);
+    }
+
+    /**
+     * Adds a checker of the compilation. All checkers must be added before the first method is
+     * looked up.
+     */
+    void addChecker(SourceChecker checker) {
+        Class<?> checkerClass = checker.getClass();
+        if (!checkers.add(checkerClass.getName())) {
+            return;
+        }
+        addCode(checkerClass);
+        addStubFiles("jdk.astub", checkerClass);
+        StubFiles stubFiles = checkerClass.getAnnotation(StubFiles.class);
+        if (stubFiles != null) {
+            for (String stubFile : stubFiles.value()) {
+                addStubFiles(stubFile, checkerClass);
+            }
+        }
+    }
+
+    /**
+     * Adds the version of the code of {@code c}, and the modification time of the file that
+     * contains it, to the fingerprint.
+     */
+    private void addCode(Class<?> c) {
+        Package pkg = c.getPackage();
+        update(
+                fingerprint,
+                "code "
+                        + c.getName()
+                        + " "
+                        + (pkg == null ? null : pkg.getImplementationVersion()));
+        String name = c.getName();
+        URL url = c.getResource(name.substring(name.lastIndexOf('.') + 1) + ".class");
+        long modified = 0;
+        try {
+            if (url != null && url.getProtocol().equals("jar")) {
+                url = ((JarURLConnection) url.openConnection()).getJarFileURL();
+            }
+            if (url != null && url.getProtocol().equals("file")) {
+                modified = new File(url.toURI()).lastModified();
+            }
+        } catch (IOException | URISyntaxException e) {
+            // The modification time is not known.
+        }
+        update(fingerprint, String.valueOf(modified));
+    }
+
+    /**
+     * Adds the contents of stub files to the fingerprint.
+     *
+     * @param paths the stub files or directories, separated by the path separator
+     * @param resourceBase the class relative to which a stub file that is not found is looked up as
+     *     a resource, or null
+     */
+    private void addStubFiles(String paths, /*@Nullable*/ Class<?> resourceBase) {
+        for (String path : paths.split(File.pathSeparator)) {
+            if (path.isEmpty()) {
+                continue;
+            }
+            update(fingerprint, "stubs " + path);
+            List<StubResource> stubs = StubUtil.allStubFiles(path);
+            if (stubs.isEmpty() && resourceBase != null) {
+                addStubFile(resourceBase.getResourceAsStream(path));
+            }
+            for (StubResource stub : stubs) {
+                try {
+                    addStubFile(stub.getInputStream());
+                } catch (IOException e) {
+                    // The stub file is not read by the checkers either.
+                }
+            }
+        }
+    }
+
+    /** Adds the contents of a stub file to the fingerprint, and closes {@code in}. */
+    private void addStubFile(/*@Nullable*/ InputStream in) {
+        if (in == null) {
+            return;
+        }
+        try (InputStream input = in) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                fingerprint.update(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            // The stub file is not read by the checkers either.
+        }
+    }
+
+    /** Reads the file, or creates it if it does not exist or has a different fingerprint. */
+    private void load() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        String expected = toHex(fingerprint.digest());
+        if (!file.exists() || read(expected)) {
+            // Write the fingerprint, and remove the replaced or discarded entries.
+            write(expected);
+        }
+    }
+
+    /**
+     * Returns the method declared by {@code tree}, or null if the method is not recorded in the
+     * baseline, because it is a constructor, has no body, or is declared in a local or anonymous
+     * class.
+     */
+    /*@Nullable*/ Method getMethod(MethodTree tree, CompilationUnitTree root) {
+        load();
+        if (root != this.root) {
+            this.root = root;
+            source = null;
+            methods.clear();
+            classSignatures.clear();
+        }
+        if (methods.containsKey(tree)) {
+            return methods.get(tree);
+        }
+        Method method = computeMethod(tree, root);
+        methods.put(tree, method);
+        return method;
+    }
+
+    private /*@Nullable*/ Method computeMethod(MethodTree tree, CompilationUnitTree root) {
+        ExecutableElement elt = TreeUtils.elementFromDeclaration(tree);
+        if (elt == null || elt.getKind() != ElementKind.METHOD || tree.getBody() == null) {
+            return null;
+        }
+        for (Element enclosing = elt.getEnclosingElement();
+                enclosing.getKind() != ElementKind.PACKAGE;
+                enclosing = enclosing.getEnclosingElement()) {
+            NestingKind nesting = ((TypeElement) enclosing).getNestingKind();
+            if (nesting != NestingKind.TOP_LEVEL && nesting != NestingKind.MEMBER) {
+                return null;
+            }
+        }
+        SourcePositions positions = trees.getSourcePositions();
+        long start = positions.getStartPosition(root, tree);
+        long end = positions.getEndPosition(root, tree);
+        if (start < 0 || end <= start) {
+            return null;
+        }
+        if (source == null) {
+            try {
+                source = root.getSourceFile().getCharContent(true);
+            } catch (IOException e) {
+                ErrorReporter.errorAbort("Could not read " + root.getSourceFile().getName(), e);
+            }
+        }
+        if (end > source.length()) {
+            return null;
+        }
+        MessageDigest digest = newDigest();
+        update(digest, source.subSequence((int) start, (int) end).toString());
+
+        Element enclosing = elt.getEnclosingElement();
+        while (enclosing.getKind() != ElementKind.PACKAGE) {
+            update(digest, getClassSignature((TypeElement) enclosing));
+            enclosing = enclosing.getEnclosingElement();
+        }
+        update(digest, enclosing.getAnnotationMirrors().toString());
+
+        TypeElement type = (TypeElement) elt.getEnclosingElement();
+        for (TypeElement supertype : ElementUtils.getSuperTypes(elements, type)) {
+            for (Element member : supertype.getEnclosedElements()) {
+                if (member.getKind() == ElementKind.METHOD
+                        && member.getSimpleName().equals(elt.getSimpleName())
+                        && elements.overrides(elt, (ExecutableElement) member, type)) {
+                    update(digest, getSignature(member));
+                }
+            }
+        }
+
+        for (Element used : getUsedElements(tree)) {
+            StringBuilder sb = new StringBuilder(getSignature(used));
+            for (Element e = used.getEnclosingElement(); e != null; e = e.getEnclosingElement()) {
+                sb.append(e.getAnnotationMirrors());
+            }
+            update(digest, sb.toString());
+        }
+        return new Method(ElementUtils.getVerboseName(elt), toHex(digest.digest()), start);
+    }
+
+    /**
+     * Returns the signature of {@code type}, followed by the signatures of its members, which
+     * includes the signatures of its nested classes but not their members.
+     */
+    private String getClassSignature(TypeElement type) {
+        String signature = classSignatures.get(type);
+        if (signature == null) {
+            StringBuilder sb = new StringBuilder(getSignature(type));
+            for (Element member : type.getEnclosedElements()) {
+                sb.append(getSignature(member));
+            }
+            signature = sb.toString();
+            classSignatures.put(type, signature);
+        }
+        return signature;
+    }
+
+    /**
+     * Returns the kind, modifiers, annotations, name, and type of {@code elt}, the bounds of its
+     * type parameters, and, for a class, its supertypes and, for a field, its constant value.
+     */
+    private static String getSignature(Element elt) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(elt.getKind()).append(' ').append(elt.getModifiers()).append(' ');
+        sb.append(elt.getAnnotationMirrors()).append(' ');
+        Element enclosing = elt.getEnclosingElement();
+        if (enclosing != null) {
+            sb.append(enclosing).append('.');
+        }
+        sb.append(elt.getSimpleName()).append(' ').append(elt.asType());
+        if (elt instanceof Parameterizable) {
+            for (TypeParameterElement typeParameter : ((Parameterizable) elt).getTypeParameters()) {
+                sb.append(' ').append(typeParameter).append(typeParameter.getBounds());
+            }
+        }
+        if (elt instanceof TypeElement) {
+            TypeElement type = (TypeElement) elt;
+            sb.append(' ').append(type.getSuperclass()).append(type.getInterfaces());
+        } else if (elt instanceof VariableElement) {
+            sb.append(' ').append(((VariableElement) elt).getConstantValue());
+        }
+        return sb.append('\n').toString();
+    }
+
+    /** Returns the methods, constructors, fields, and types that {@code tree} refers to. */
+    private static Set<Element> getUsedElements(MethodTree tree) {
+        final Set<Element> used = new LinkedHashSet<>();
+        new TreeScanner<Void, Void>() {
+            private void use(Tree tree) {
+                Element elt = InternalUtils.symbol(tree);
+                if (elt == null) {
+                    return;
+                }
+                switch (elt.getKind()) {
+                    case METHOD:
+                    case CONSTRUCTOR:
+                    case FIELD:
+                    case ENUM_CONSTANT:
+                    case CLASS:
+                    case INTERFACE:
+                    case ENUM:
+                    case ANNOTATION_TYPE:
+                        used.add(elt);
+                        break;
+                    default:
+                        // Local variables and parameters are declared in the method itself.
+                }
+            }
+
+            @Override
+            public Void visitIdentifier(IdentifierTree node, Void p) {
+                use(node);
+                return super.visitIdentifier(node, p);
+            }
+
+            @Override
+            public Void visitMemberSelect(MemberSelectTree node, Void p) {
+                use(node);
+                return super.visitMemberSelect(node, p);
+            }
+
+            @Override
+            public Void visitNewClass(NewClassTree node, Void p) {
+                use(node);
+                return super.visitNewClass(node, p);
+            }
+
+            @Override
+            public Void visitMemberReference(MemberReferenceTree node, Void p) {
+                use(node);
+                return super.visitMemberReference(node, p);
+            }
+        }.scan(tree, null);
+        return used;
+    }
+
+    /** Returns a new SHA-256 digest. */
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            ErrorReporter.errorAbort("Baseline: SHA-256 is not available", e);
+            return null; // dead code
+        }
+    }
+
+    /** Adds {@code s}, followed by a line break, to {@code digest}. */
+    private static void update(MessageDigest digest, String s) {
+        digest.update(s.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) '\n');
+    }
+
+    /** Returns {@code bytes} in hexadecimal. */
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xf, 16))
+                    .append(Character.forDigit(b & 0xf, 16));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns true if {@code method} did not change since the baseline recorded the diagnostics of
+     * every checker of the compilation for it.
+     */
+    boolean isUnchanged(Method method) {
+        Map<String, Entry> byChecker = entries.get(method.name);
+        if (byChecker == null) {
+            return false;
+        }
+        for (String checker : checkers) {
+            Entry entry = byChecker.get(checker);
+            if (entry == null || !entry.hash.equals(method.hash)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Returns the recorded diagnostics of {@code checker} for {@code method}. */
+    List<Recorded> getDiagnostics(String checker, Method method) {
+        Map<String, Entry> byChecker = entries.get(method.name);
+        Entry entry = byChecker == null ? null : byChecker.get(checker);
+        return entry == null ? new ArrayList<Recorded>() : entry.diagnostics;
+    }
+
+    /**
+     * Returns the tree within {@code tree}, the declaration of {@code method}, that has the given
+     * relative start and end positions, or {@code tree} itself if there is none.
+     */
+    Tree findTree(
+            final MethodTree tree,
+            final CompilationUnitTree root,
+            Method method,
+            long relativeStart,
+            long relativeEnd) {
+        if (relativeStart < 0) {
+            return tree;
+        }
+        final long start = method.start + relativeStart;
+        final long end = method.start + relativeEnd;
+        final SourcePositions positions = trees.getSourcePositions();
+        Tree found =
+                new TreeScanner<Tree, Void>() {
+                    @Override
+                    public Tree scan(Tree t, Void p) {
+                        if (t == null) {
+                            return null;
+                        }
+                        long tStart = positions.getStartPosition(root, t);
+                        long tEnd = positions.getEndPosition(root, t);
+                        if (tStart == start && tEnd == end) {
+                            return t;
+                        }
+                        if (tStart > start || (tEnd >= 0 && tEnd < end)) {
+                            // The tree cannot contain the one that is searched for.
+                            return null;
+                        }
+                        return super.scan(t, p);
+                    }
+
+                    @Override
+                    public Tree reduce(Tree r1, Tree r2) {
+                        return r1 != null ? r1 : r2;
+                    }
+                }.scan(tree, null);
+        return found != null ? found : tree;
+    }
+
+    /**
+     * Records a diagnostic in {@code entry}.
+     *
+     * @param entry the entry of the method that is being checked
+     * @param method the method that is being checked
+     * @param kind the kind of the diagnostic
+     * @param msgKey the message key
+     * @param start the start position of the diagnostic, or -1 if it has none
+     * @param end the end position of the diagnostic, or -1 if it has none
+     * @param args the message arguments
+     */
+    void record(
+            Entry entry,
+            Method method,
+            Diagnostic.Kind kind,
+            String msgKey,
+            long start,
+            long end,
+            Object /*@Nullable*/ [] args) {
+        String[] strings = new String[args == null ? 0 : args.length];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = String.valueOf(args[i]);
+        }
+        if (start < method.start) {
+            start = -1;
+            end = -1;
+        } else {
+            start -= method.start;
+            end -= method.start;
+        }
+        entry.diagnostics.add(new Recorded(kind, msgKey, start, end, strings));
+    }
+
+    /** Stores the entry of {@code checker} for {@code method} and appends it to the file. */
+    void put(String checker, Method method, Entry entry) {
+        Map<String, Entry> byChecker = entries.get(method.name);
+        if (byChecker == null) {
+            byChecker = new HashMap<>();
+            entries.put(method.name, byChecker);
+        }
+        byChecker.put(checker, entry);
+
+        try {
+            if (out == null) {
+                out =
+                        new BufferedWriter(
+                                new OutputStreamWriter(
+                                        new FileOutputStream(file, true), StandardCharsets.UTF_8));
+            }
+            out.write(format(checker, method.name, entry));
+        } catch (IOException e) {
+            ErrorReporter.errorAbort("Could not write baseline " + file, e);
+        }
+    }
+
+    /** Flushes the entries appended so far to the file. */
+    void flush() {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.flush();
+        } catch (IOException e) {
+            ErrorReporter.errorAbort("Could not write baseline " + file, e);
+        }
+    }
+
+    /** Closes the file. Entries that are put later reopen it. */
+    void close() {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.close();
+        } catch (IOException e) {
+            ErrorReporter.errorAbort("Could not write baseline " + file, e);
+        }
+        out = null;
+        root = null;
+        source = null;
+        methods.clear();
+        classSignatures.clear();
+    }
+
+    /** Returns the lines of the file for the entry of {@code checker} for a method. */
+    private static String format(String checker, String method, Entry entry) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("M\t");
+        DiagnosticSink.escape(sb, checker);
+        sb.append('\t');
+        DiagnosticSink.escape(sb, method);
+        sb.append('\t').append(entry.hash).append('\n');
+        for (Recorded d : entry.diagnostics) {
+            sb.append("D\t").append(d.kind.name()).append('\t');
+            DiagnosticSink.escape(sb, d.msgKey);
+            sb.append('\t').append(d.start).append('\t').append(d.end);
+            for (String arg : d.args) {
+                sb.append('\t');
+                DiagnosticSink.escape(sb, arg);
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Reads the entries in the file, unless its fingerprint differs from {@code expected}.
+     *
+     * @param expected the fingerprint of the compilation
+     * @return true if the file has to be written anew, because its fingerprint differs from {@code
+     *     expected} or it contains entries that were replaced by later ones
+     */
+    private boolean read(String expected) {
+        boolean replaced = false;
+        try (BufferedReader in =
+                new BufferedReader(
+                        new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            boolean matches = false;
+            Entry entry = null;
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split("\t", -1);
+                for (int i = 0; i < fields.length; i++) {
+                    fields[i] = unescape(fields[i]);
+                }
+                if (!matches) {
+                    if (fields[0].equals("F") && fields.length == 2 && fields[1].equals(expected)) {
+                        matches = true;
+                        continue;
+                    }
+                    // The baseline was recorded with other checkers, options, or stub files.
+                    entries.clear();
+                    return true;
+                }
+                if (fields[0].equals("M") && fields.length == 4) {
+                    entry = new Entry(fields[3]);
+                    Map<String, Entry> byChecker = entries.get(fields[2]);
+                    if (byChecker == null) {
+                        byChecker = new HashMap<>();
+                        entries.put(fields[2], byChecker);
+                    }
+                    replaced |= byChecker.put(fields[1], entry) != null;
+                } else if (fields[0].equals("D") && fields.length >= 5 && entry != null) {
+                    entry.diagnostics.add(
+                            new Recorded(
+                                    Diagnostic.Kind.valueOf(fields[1]),
+                                    fields[2],
+                                    Long.parseLong(fields[3]),
+                                    Long.parseLong(fields[4]),
+                                    Arrays.copyOfRange(fields, 5, fields.length)));
+                } else {
+                    ErrorReporter.errorAbort("Malformed line in baseline " + file + ": " + line);
+                }
+            }
+            if (!matches) {
+                // The file has no fingerprint.
+                return true;
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            ErrorReporter.errorAbort("Could not read baseline " + file, e);
+        }
+        return replaced;
+    }
+
+    /**
+     * Writes the fingerprint and all entries to the file, replacing its contents.
+     *
+     * @param fingerprint the fingerprint of the compilation
+     */
+    private void write(String fingerprint) {
+        try (Writer writer =
+                new BufferedWriter(
+                        new OutputStreamWriter(
+                                new FileOutputStream(file), StandardCharsets.UTF_8))) {
+            writer.write("# Baseline written by the Checker Framework\n");
+            writer.write("F\t" + fingerprint + "\n");
+            for (Map.Entry<String, Map<String, Entry>> byMethod : entries.entrySet()) {
+                for (Map.Entry<String, Entry> byChecker : byMethod.getValue().entrySet()) {
+                    writer.write(
+                            format(byChecker.getKey(), byMethod.getKey(), byChecker.getValue()));
+                }
+            }
+        } catch (IOException e) {
+            ErrorReporter.errorAbort("Could not write baseline " + file, e);
+        }
+    }
+
+    /** Undoes the escaping of {@link DiagnosticSink}. */
+    private static String unescape(String s) {
+        if (s.indexOf('\\') < 0) {
+            return s;
+        }
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '\\' && i + 1 < s.length()) {
+                char next = s.charAt(++i);
+                switch (next) {
+                    case 't':
+                        sb.append('\t');
+                        break;
+                    case 'n':
+                        sb.append('\n');
+                        break;
+                    case 'r':
+                        sb.append('\r');
+                        break;
+                    default:
+                        sb.append(next);
+                }
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
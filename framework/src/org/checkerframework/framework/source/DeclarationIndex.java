@@ -0,0 +1,171 @@
+package org.checkerframework.framework.source;
+
+/*>>>
+import org.checkerframework.checker.nullness.qual.Nullable;
+*/
+
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.MethodTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.tree.VariableTree;
+import com.sun.source.util.SourcePositions;
+import com.sun.source.util.TreeScanner;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The class, method, and variable declarations of a compilation unit, indexed by source position.
+ *
+ * <p>The index finds the innermost declarations that enclose a source position with a binary
+ * search, instead of computing the {@link com.sun.source.util.TreePath} of a tree, which scans the
+ * compilation unit. {@link SourceChecker} uses it to find the declarations whose
+ * {@code @SuppressWarnings} and {@code @AnnotatedFor} annotations apply to a diagnostic.
+ */
+class DeclarationIndex {
+
+    /** The class declarations of the compilation unit. */
+    private final Scopes<ClassTree> classes = new Scopes<>();
+
+    /** The method declarations of the compilation unit. */
+    private final Scopes<MethodTree> methods = new Scopes<>();
+
+    /** The variable declarations of the compilation unit. */
+    private final Scopes<VariableTree> variables = new Scopes<>();
+
+    /**
+     * Creates the index of the declarations in {@code root}.
+     *
+     * @param root the compilation unit
+     * @param positions the source positions of the trees of {@code root}
+     */
+    DeclarationIndex(final CompilationUnitTree root, final SourcePositions positions) {
+        new TreeScanner<Void, Void>() {
+            @Override
+            public Void visitClass(ClassTree tree, Void p) {
+                classes.add(tree, root, positions);
+                return super.visitClass(tree, p);
+            }
+
+            @Override
+            public Void visitMethod(MethodTree tree, Void p) {
+                methods.add(tree, root, positions);
+                return super.visitMethod(tree, p);
+            }
+
+            @Override
+            public Void visitVariable(VariableTree tree, Void p) {
+                variables.add(tree, root, positions);
+                return super.visitVariable(tree, p);
+            }
+        }.scan(root, null);
+        classes.build();
+        methods.build();
+        variables.build();
+    }
+
+    /** Returns the innermost class declaration that contains {@code pos}, or null. */
+    /*@Nullable*/ ClassTree enclosingClass(long pos) {
+        return classes.enclosing(pos);
+    }
+
+    /** Returns the innermost method declaration that contains {@code pos}, or null. */
+    /*@Nullable*/ MethodTree enclosingMethod(long pos) {
+        return methods.enclosing(pos);
+    }
+
+    /** Returns the innermost variable declaration that contains {@code pos}, or null. */
+    /*@Nullable*/ VariableTree enclosingVariable(long pos) {
+        return variables.enclosing(pos);
+    }
+
+    /**
+     * The source ranges of the declarations of one kind. Declarations of one kind are properly
+     * nested, so the declarations that contain a position are the declaration with the greatest
+     * start position not after it, and those of its ancestors that also contain it.
+     */
+    private static class Scopes<T extends Tree> {
+
+        /** The declarations, sorted by start position, outer declarations first. */
+        private final List<Scope<T>> scopes = new ArrayList<>();
+
+        /** The start positions of {@link #scopes}, for the binary search. */
+        private long[] starts;
+
+        /** Adds {@code tree}, unless it has no source position, such as a generated constructor. */
+        void add(T tree, CompilationUnitTree root, SourcePositions positions) {
+            long start = positions.getStartPosition(root, tree);
+            long end = positions.getEndPosition(root, tree);
+            if (start >= 0 && end > start) {
+                scopes.add(new Scope<T>(tree, start, end));
+            }
+        }
+
+        /** Sorts the declarations and links each one to its innermost enclosing declaration. */
+        void build() {
+            Collections.sort(
+                    scopes,
+                    new Comparator<Scope<T>>() {
+                        @Override
+                        public int compare(Scope<T> s1, Scope<T> s2) {
+                            if (s1.start != s2.start) {
+                                return s1.start < s2.start ? -1 : 1;
+                            }
+                            return s1.end == s2.end ? 0 : (s1.end > s2.end ? -1 : 1);
+                        }
+                    });
+            starts = new long[scopes.size()];
+            List<Scope<T>> open = new ArrayList<>();
+            for (int i = 0; i < scopes.size(); i++) {
+                Scope<T> scope = scopes.get(i);
+                starts[i] = scope.start;
+                while (!open.isEmpty() && open.get(open.size() - 1).end <= scope.start) {
+                    open.remove(open.size() - 1);
+                }
+                scope.parent = open.isEmpty() ? null : open.get(open.size() - 1);
+                open.add(scope);
+            }
+        }
+
+        /** Returns the innermost declaration that contains {@code pos}, or null. */
+        /*@Nullable*/ T enclosing(long pos) {
+            int index = Arrays.binarySearch(starts, pos);
+            if (index < 0) {
+                // The insertion point is the first declaration that starts after pos.
+                index = -index - 2;
+            } else {
+                // Several declarations may start at pos; the last one is the innermost.
+                while (index + 1 < starts.length && starts[index + 1] == pos) {
+                    index++;
+                }
+            }
+            if (index < 0) {
+                return null;
+            }
+            Scope<T> scope = scopes.get(index);
+            while (scope != null && scope.end <= pos) {
+                scope = scope.parent;
+            }
+            return scope == null ? null : scope.tree;
+        }
+    }
+
+    /** The source range of one declaration. */
+    private static class Scope<T extends Tree> {
+        final T tree;
+        final long start;
+        final long end;
+
+        /** The innermost declaration of the same kind that encloses this one, or null. */
+        /*@Nullable*/ Scope<T> parent;
+
+        Scope(T tree, long start, long end) {
+            this.tree = tree;
+            this.start = start;
+            this.end = end;
+        }
+    }
+}
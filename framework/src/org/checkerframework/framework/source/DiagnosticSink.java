@@ -0,0 +1,245 @@
+package org.checkerframework.framework.source;
+
+/*>>>
+import org.checkerframework.checker.nullness.qual.Nullable;
+*/
+
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.LineMap;
+import com.sun.tools.javac.util.Context;
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import javax.annotation.processing.Messager;
+import javax.tools.Diagnostic;
+import org.checkerframework.javacutil.ErrorReporter;
+
+/**
+ * Writes the diagnostics of all checkers of a compilation to the file given by the diagnosticsFile
+ * option, instead of reporting them through the compiler.
+ *
+ * <p>Each diagnostic is written as soon as it is reported, as one line of tab-separated fields: the
+ * checker, the diagnostic kind, the source file, the line number, the start and end positions, the
+ * message key, and the message arguments. Tabs, line breaks, and backslashes within a field are
+ * escaped with a backslash. The message text itself is not formatted; a tool reading the file can
+ * look up the message key in the checker's messages.properties file.
+ *
+ * <p>A diagnostic with the same checker, message key, and position as one that was already written
+ * for the same compilation unit is dropped; a diagnostic without a position is only dropped if it
+ * also has the same source element or tree. Only the diagnostics of the current compilation unit
+ * are remembered, so the memory used does not grow with the number of diagnostics written.
+ */
+class DiagnosticSink {
+
+    /** The key of the compilation-wide instance in the compiler's context. */
+    private static final Context.Key<DiagnosticSink> KEY = new Context.Key<>();
+
+    /** The file that the diagnostics are written to. */
+    private final String filename;
+
+    /** The writer for {@link #filename}, or null if it is not open. */
+    private /*@Nullable*/ Writer out;
+
+    /** Was {@link #filename} opened before? If so, it is appended to rather than truncated. */
+    private boolean opened = false;
+
+    /** The compilation unit of the diagnostics in {@link #written}. */
+    private /*@Nullable*/ CompilationUnitTree root;
+
+    /**
+     * The checker, message key, and position of the diagnostics written for {@link #root}, or, for
+     * diagnostics without a position, their checker, message key, and source.
+     */
+    private final Set<Object> written = new HashSet<>();
+
+    /** The number of errors written. */
+    private int errors = 0;
+
+    /** The number of warnings written. */
+    private int warnings = 0;
+
+    /**
+     * Returns the diagnostic sink of the compilation with context {@code context}, creating it if
+     * necessary.
+     *
+     * @param context the compiler's context
+     * @param filename the file that the diagnostics are written to
+     * @return the diagnostic sink of the compilation
+     */
+    static DiagnosticSink instance(Context context, String filename) {
+        DiagnosticSink instance = context.get(KEY);
+        if (instance == null) {
+            instance = new DiagnosticSink(filename);
+            context.put(KEY, instance);
+        }
+        return instance;
+    }
+
+    private DiagnosticSink(String filename) {
+        this.filename = filename;
+    }
+
+    /**
+     * Returns true if a diagnostic with the given checker, message key, and position was already
+     * written for {@code root}, and records it otherwise. Diagnostics without a position are only
+     * duplicates if they also have the same source. The caller should drop the diagnostic if this
+     * returns true, before formatting its arguments.
+     */
+    boolean isDuplicate(
+            CompilationUnitTree root,
+            String checker,
+            String msgKey,
+            Object source,
+            long start,
+            long end) {
+        if (root != this.root) {
+            this.root = root;
+            written.clear();
+        }
+        if (start < 0) {
+            return !written.add(Arrays.asList(checker, msgKey, source));
+        }
+        return !written.add(checker + '\t' + msgKey + '\t' + start + '\t' + end);
+    }
+
+    /** Returns the number of errors written so far. */
+    int getErrorCount() {
+        return errors;
+    }
+
+    /**
+     * Writes a diagnostic.
+     *
+     * @param root the compilation unit of the diagnostic
+     * @param checker the name of the checker that reports the diagnostic
+     * @param kind the kind of the diagnostic
+     * @param msgKey the message key
+     * @param start the start position of the diagnostic, or -1 if it has none
+     * @param end the end position of the diagnostic, or -1 if it has none
+     * @param args the arguments of the message
+     */
+    void write(
+            CompilationUnitTree root,
+            String checker,
+            Diagnostic.Kind kind,
+            String msgKey,
+            long start,
+            long end,
+            Object /*@Nullable*/ [] args) {
+        StringBuilder line = new StringBuilder();
+        line.append(checker).append('\t').append(kind).append('\t');
+        escape(line, root.getSourceFile().getName());
+        line.append('\t');
+        LineMap lineMap = root.getLineMap();
+        line.append(start >= 0 && lineMap != null ? lineMap.getLineNumber(start) : -1);
+        line.append('\t').append(start).append('\t').append(end).append('\t').append(msgKey);
+        if (args != null) {
+            for (Object arg : args) {
+                line.append('\t');
+                escape(line, String.valueOf(arg));
+            }
+        }
+        line.append('\n');
+
+        try {
+            if (out == null) {
+                out =
+                        new BufferedWriter(
+                                new OutputStreamWriter(
+                                        new FileOutputStream(filename, opened),
+                                        StandardCharsets.UTF_8));
+                opened = true;
+            }
+            out.write(line.toString());
+        } catch (IOException e) {
+            ErrorReporter.errorAbort("Could not write diagnostics to " + filename, e);
+        }
+        if (kind == Diagnostic.Kind.ERROR) {
+            errors++;
+        } else {
+            warnings++;
+        }
+    }
+
+    /** Flushes the diagnostics written so far to the file. */
+    void flush() {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.flush();
+        } catch (IOException e) {
+            ErrorReporter.errorAbort("Could not write diagnostics to " + filename, e);
+        }
+    }
+
+    /**
+     * Closes the file and reports the number of diagnostics written to it through {@code messager}.
+     * The count is reported as an error if any errors were written, so that the compilation still
+     * fails. If no diagnostic was written, the file is created empty, so that it does not keep the
+     * diagnostics of an earlier compilation.
+     *
+     * @param messager the messager to report the number of diagnostics with
+     */
+    void close(Messager messager) {
+        if (out == null) {
+            if (!opened) {
+                try {
+                    new FileOutputStream(filename).close();
+                } catch (IOException e) {
+                    ErrorReporter.errorAbort("Could not write diagnostics to " + filename, e);
+                }
+                opened = true;
+            }
+            return;
+        }
+        try {
+            out.close();
+        } catch (IOException e) {
+            ErrorReporter.errorAbort("Could not write diagnostics to " + filename, e);
+        }
+        out = null;
+        root = null;
+        written.clear();
+
+        if (errors > 0) {
+            messager.printMessage(
+                    Diagnostic.Kind.ERROR,
+                    errors + " errors and " + warnings + " warnings written to " + filename);
+        } else if (warnings > 0) {
+            messager.printMessage(
+                    Diagnostic.Kind.WARNING, warnings + " warnings written to " + filename);
+        }
+        errors = 0;
+        warnings = 0;
+    }
+
+    /** Appends {@code s} to {@code sb}, escaping tabs, line breaks, and backslashes. */
+    static void escape(StringBuilder sb, String s) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                default:
+                    sb.append(c);
+            }
+        }
+    }
+}
@@ -114,6 +114,14 @@ import org.checkerframework.javacutil.TreeUtils;
     // Unsoundly ignore side effects
     "assumeSideEffectFree",
 
+    // Infer the purity of unannotated methods that cannot be overridden
+    // org.checkerframework.framework.type.GenericAnnotatedTypeFactory.isSideEffectFree
+    "inferPurity",
+
+    // Read the inferred purity of methods from, and write it to, the given file
+    // org.checkerframework.framework.util.PuritySummaries
+    "puritySummaries",
+
     // Whether to assume that assertions are enabled or disabled
     // org.checkerframework.framework.flow.CFCFGBuilder.CFCFGBuilder
     "assumeAssertionsAreEnabled",
@@ -188,6 +196,19 @@ import org.checkerframework.javacutil.TreeUtils;
     // Whether to use .jaif files whole-program inference
     "infer",
 
+    // Limits on the dataflow analysis of each method, lambda, or initializer: the number of
+    // transfer function invocations and the time in milliseconds. The declared types are used
+    // for code whose analysis exceeds a limit, and a flow.budget.exceeded warning is issued.
+    // org.checkerframework.framework.type.GenericAnnotatedTypeFactory.analyze
+    "flowBudget",
+    "flowTimeBudget",
+
+    // Do not compute or store dataflow values for expressions whose Java type is not
+    // relevant according to the checker's @RelevantJavaTypes annotation, unless the
+    // checker refines values of such types
+    // org.checkerframework.framework.type.GenericAnnotatedTypeFactory.isRelevantForFlow
+    "sparseFlow",
+
     // With each warning, in addition to the concrete error key,
     // output the suppress warning keys that can be used to
     // suppress that warning.
@@ -235,6 +256,21 @@ import org.checkerframework.javacutil.TreeUtils;
     // org.checkerframework.framework.source.SourceChecker.message(Kind, Object, String, Object...)
     "detailedmsgtext",
 
+    // Write diagnostics to the given file, one tab-separated record per
+    // diagnostic, instead of reporting them through the compiler
+    // org.checkerframework.framework.source.DiagnosticSink
+    "diagnosticsFile",
+
+    // Skip methods that did not change since their diagnostics were recorded
+    // in the given baseline file, and report the recorded diagnostics instead
+    // org.checkerframework.framework.source.Baseline
+    "baseline",
+
+    // Do not report the recorded diagnostics of methods skipped because of
+    // the baseline option
+    // org.checkerframework.framework.source.SourceChecker.reportBaselineDiagnostics
+    "dropBaselined",
+
     // Whether to output a stack trace for a framework error
     // org.checkerframework.framework.source.SourceChecker.logCheckerError
     "printErrorStack",
@@ -309,7 +345,12 @@ import org.checkerframework.javacutil.TreeUtils;
     "atfCacheSize",
 
     // Sets AnnotatedTypeFactory shouldCache to false
-    "atfDoNotCache"
+    "atfDoNotCache",
+
+    // Fill the AnnotatedTypeFactory element caches with the types of the given
+    // comma-separated library classes and their members, or of frequently used
+    // JDK classes if no class is given
+    "atfWarmCache"
 })
 public abstract class SourceChecker extends AbstractTypeProcessor
         implements ErrorHandler, CFContext, OptionConfiguration {
@@ -336,6 +377,24 @@ public abstract class SourceChecker extends AbstractTypeProcessor
     /** The source tree that is being scanned. */
     protected CompilationUnitTree currentRoot;
 
+    /**
+     * The declarations of {@link #currentRoot} by source position, or null if they have not been
+     * indexed yet. Used by {@link #shouldSuppressWarnings(Tree, String)}.
+     */
+    private /*@Nullable*/ DeclarationIndex declarationIndex;
+
+    /** The baseline, or null if the baseline option was not given. */
+    private /*@Nullable*/ Baseline baseline;
+
+    /** The method whose diagnostics are being recorded for the baseline, or null. */
+    private /*@Nullable*/ MethodTree baselineTree;
+
+    /** The baseline information of {@link #baselineTree}, or null. */
+    private /*@Nullable*/ Baseline.Method baselineMethod;
+
+    /** The diagnostics recorded for {@link #baselineTree}, or null. */
+    private /*@Nullable*/ Baseline.Entry baselineEntry;
+
     /**
      * If an error is detected in a CompilationUnitTree, skip all future calls of typeProcess with
      * that same CompilationUnitTree.
@@ -849,6 +908,12 @@ public abstract class SourceChecker extends AbstractTypeProcessor
         this.messager = processingEnv.getMessager();
         this.messages = getMessages();
 
+        if (hasOption("baseline")) {
+            Context context = ((JavacProcessingEnvironment) processingEnv).getContext();
+            baseline = Baseline.instance(context, processingEnv, getOption("baseline"));
+            baseline.addChecker(this);
+        }
+
         this.visitor = createSourceVisitor();
 
         // TODO: hack to clear out static caches.
@@ -926,9 +991,8 @@ public abstract class SourceChecker extends AbstractTypeProcessor
             warnedAboutSourceLevel = true;
         }
 
-        Log log = Log.instance(context);
-        if (log.nerrors > this.errsOnLastExit) {
-            this.errsOnLastExit = log.nerrors;
+        if (getErrorCount() > this.errsOnLastExit) {
+            this.errsOnLastExit = getErrorCount();
             previousErrorCompilationUnit = p.getCompilationUnit();
             return;
         }
@@ -943,9 +1007,15 @@ public abstract class SourceChecker extends AbstractTypeProcessor
         }
         if (p.getCompilationUnit() != currentRoot) {
             currentRoot = p.getCompilationUnit();
+            declarationIndex = null;
             visitor.setRoot(currentRoot);
         }
 
+        // Recordings of methods whose visit did not complete are discarded.
+        baselineTree = null;
+        baselineMethod = null;
+        baselineEntry = null;
+
         // Visit the attributed tree.
         try {
             visitor.visit(p);
@@ -956,8 +1026,183 @@ public abstract class SourceChecker extends AbstractTypeProcessor
         } finally {
             // Also add possibly deferred diagnostics, which will get published back in
             // AbstractTypeProcessor.
-            this.errsOnLastExit = log.nerrors;
+            this.errsOnLastExit = getErrorCount();
+            DiagnosticSink sink = getDiagnosticSink();
+            if (sink != null) {
+                sink.flush();
+            }
+            if (baseline != null) {
+                baseline.flush();
+            }
+        }
+    }
+
+    @Override
+    public void typeProcessingOver() {
+        DiagnosticSink sink = getDiagnosticSink();
+        if (sink != null) {
+            sink.close(messager);
+        }
+        if (baseline != null) {
+            baseline.close();
+        }
+        super.typeProcessingOver();
+    }
+
+    /**
+     * Returns true if the baseline option was given and {@code method} did not change since the
+     * baseline recorded the diagnostics of all checkers for it. Such a method need not be analyzed
+     * or visited; instead, {@link #reportBaselineDiagnostics} reports its recorded diagnostics.
+     *
+     * @param method a method declaration in the compilation unit being checked
+     * @return true if {@code method} did not change since it was recorded in the baseline
+     */
+    public boolean isUnchangedSinceBaseline(MethodTree method) {
+        if (baseline == null) {
+            return false;
+        }
+        Baseline.Method m = baseline.getMethod(method, currentRoot);
+        return m != null && baseline.isUnchanged(m);
+    }
+
+    /**
+     * Reports the diagnostics that the baseline recorded for {@code method}, unless the
+     * dropBaselined option was given.
+     *
+     * @param method a method for which {@link #isUnchangedSinceBaseline} returns true
+     */
+    public void reportBaselineDiagnostics(MethodTree method) {
+        if (baseline == null || hasOption("dropBaselined")) {
+            return;
+        }
+        Baseline.Method m = baseline.getMethod(method, currentRoot);
+        if (m == null) {
+            return;
+        }
+        for (Baseline.Recorded d : baseline.getDiagnostics(this.getClass().getName(), m)) {
+            Tree tree = baseline.findTree(method, currentRoot, m, d.start, d.end);
+            if (!shouldSuppressWarnings(tree, d.msgKey)) {
+                Object[] args = new Object[d.args.length];
+                System.arraycopy(d.args, 0, args, 0, args.length);
+                message(d.kind, tree, d.msgKey, args);
+            }
+        }
+    }
+
+    /**
+     * Starts recording the diagnostics reported while {@code method} is visited, if the baseline
+     * option was given. Does nothing if the diagnostics of another method are being recorded.
+     *
+     * @param method the method that is about to be visited
+     */
+    public void startBaselineRecording(MethodTree method) {
+        if (baseline == null || baselineTree != null) {
+            return;
+        }
+        Baseline.Method m = baseline.getMethod(method, currentRoot);
+        if (m != null) {
+            baselineTree = method;
+            baselineMethod = m;
+            baselineEntry = new Baseline.Entry(m.hash);
+        }
+    }
+
+    /**
+     * Stores the diagnostics recorded since {@link #startBaselineRecording} was called for {@code
+     * method} in the baseline.
+     *
+     * @param method the method that was visited
+     */
+    public void finishBaselineRecording(MethodTree method) {
+        if (baselineTree != method) {
+            return;
+        }
+        baseline.put(this.getClass().getName(), baselineMethod, baselineEntry);
+        baselineTree = null;
+        baselineMethod = null;
+        baselineEntry = null;
+    }
+
+    /**
+     * Returns the number of errors reported in this compilation so far, including those written to
+     * the file given by the diagnosticsFile option, which the compiler does not count.
+     *
+     * @return the number of errors reported in this compilation
+     */
+    protected int getErrorCount() {
+        Context context = ((JavacProcessingEnvironment) processingEnv).getContext();
+        int errors = Log.instance(context).nerrors;
+        DiagnosticSink sink = getDiagnosticSink();
+        if (sink != null) {
+            errors += sink.getErrorCount();
         }
+        return errors;
+    }
+
+    /**
+     * Returns the sink that diagnostics are written to, or null if they are reported through the
+     * compiler because the diagnosticsFile option was not given.
+     */
+    private /*@Nullable*/ DiagnosticSink getDiagnosticSink() {
+        String filename = getOption("diagnosticsFile");
+        if (filename == null) {
+            return null;
+        }
+        Context context = ((JavacProcessingEnvironment) processingEnv).getContext();
+        return DiagnosticSink.instance(context, filename);
+    }
+
+    /**
+     * Writes a diagnostic to {@code sink}, unless it is a duplicate of one that was already
+     * written. The arguments are only processed if the diagnostic is written.
+     */
+    private void writeDiagnostic(
+            DiagnosticSink sink,
+            Diagnostic.Kind kind,
+            Object source,
+            String msgKey,
+            Object /*@Nullable*/ [] args) {
+        long[] range = sourceRange(source);
+        long start = range[0];
+        long end = range[1];
+
+        String checker = this.getClass().getSimpleName();
+        if (sink.isDuplicate(currentRoot, checker, msgKey, source, start, end)) {
+            return;
+        }
+        if (args != null) {
+            for (int i = 0; i < args.length; ++i) {
+                if (args[i] != null) {
+                    args[i] = processArg(args[i]);
+                }
+            }
+        }
+        sink.write(currentRoot, checker, kind, msgKey, start, end, args);
+    }
+
+    /**
+     * Returns the start and end positions of {@code source}, a tree or element, in {@link
+     * #currentRoot}, or -1 and -1 if it has none.
+     */
+    private long[] sourceRange(Object source) {
+        final Tree tree;
+        if (source instanceof Element) {
+            TreePath path = trees.getPath((Element) source);
+            tree = path != null && path.getCompilationUnit() == currentRoot ? path.getLeaf() : null;
+        } else if (source instanceof Tree) {
+            tree = (Tree) source;
+        } else {
+            ErrorReporter.errorAbort("invalid position source: " + source.getClass().getName());
+            return null; // dead code
+        }
+        if (tree == null) {
+            return new long[] {-1, -1};
+        }
+        SourcePositions positions = trees.getSourcePositions();
+        return new long[] {
+            positions.getStartPosition(currentRoot, tree),
+            positions.getEndPosition(currentRoot, tree)
+        };
     }
 
     private CheckerError wrapThrowableAsCheckerError(
@@ -1049,6 +1294,19 @@ public abstract class SourceChecker extends AbstractTypeProcessor
 
         assert messages != null : "null messages";
 
+        if (baselineEntry != null && kind != Diagnostic.Kind.NOTE) {
+            long[] range = sourceRange(source);
+            baseline.record(baselineEntry, baselineMethod, kind, msgKey, range[0], range[1], args);
+        }
+
+        if (kind != Diagnostic.Kind.NOTE) {
+            DiagnosticSink sink = getDiagnosticSink();
+            if (sink != null) {
+                writeDiagnostic(sink, kind, source, msgKey, args);
+                return;
+            }
+        }
+
         if (args != null) {
             for (int i = 0; i < args.length; ++i) {
                 if (args[i] == null) {
@@ -1301,17 +1559,34 @@ public abstract class SourceChecker extends AbstractTypeProcessor
             return false;
         }
 
-        /*@Nullable*/ TreePath path = trees.getPath(this.currentRoot, tree);
-        if (path == null) {
-            return false;
+        /*@Nullable*/ VariableTree var;
+        /*@Nullable*/ MethodTree method;
+        /*@Nullable*/ ClassTree cls;
+        long pos = trees.getSourcePositions().getStartPosition(this.currentRoot, tree);
+        if (pos >= 0 && this.currentRoot != null) {
+            // Look up the enclosing declarations by position, which is much faster than
+            // computing the path to the tree.
+            if (declarationIndex == null) {
+                declarationIndex =
+                        new DeclarationIndex(this.currentRoot, trees.getSourcePositions());
+            }
+            var = declarationIndex.enclosingVariable(pos);
+            method = declarationIndex.enclosingMethod(pos);
+            cls = declarationIndex.enclosingClass(pos);
+        } else {
+            /*@Nullable*/ TreePath path = trees.getPath(this.currentRoot, tree);
+            if (path == null) {
+                return false;
+            }
+            var = TreeUtils.enclosingVariable(path);
+            method = TreeUtils.enclosingMethod(path);
+            cls = TreeUtils.enclosingClass(path);
         }
 
-        /*@Nullable*/ VariableTree var = TreeUtils.enclosingVariable(path);
         if (var != null && shouldSuppressWarnings(InternalUtils.symbol(var), errKey)) {
             return true;
         }
 
-        /*@Nullable*/ MethodTree method = TreeUtils.enclosingMethod(path);
         if (method != null) {
             /*@Nullable*/ Element elt = InternalUtils.symbol(method);
 
@@ -1327,7 +1602,6 @@ public abstract class SourceChecker extends AbstractTypeProcessor
             }
         }
 
-        /*@Nullable*/ ClassTree cls = TreeUtils.enclosingClass(path);
         if (cls != null) {
             /*@Nullable*/ Element elt = InternalUtils.symbol(cls);
 
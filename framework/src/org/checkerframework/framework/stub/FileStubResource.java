@@ -18,6 +18,11 @@ public class FileStubResource implements StubResource {
         this.file = file;
     }
 
+    /** @return the stub file */
+    public File getFile() {
+        return file;
+    }
+
     @Override
     public String getDescription() {
         return file.getAbsolutePath();
@@ -0,0 +1,138 @@
+package org.checkerframework.framework.stub;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import org.checkerframework.framework.type.AnnotatedTypeMirror;
+import org.checkerframework.javacutil.ElementUtils;
+
+/**
+ * The declarations of parsed stub files, indexed by the fully-qualified name of the type or package
+ * they annotate.
+ *
+ * <p>Stub files are parsed up front, but the declarations in them are only resolved to elements and
+ * annotated types when the {@link org.checkerframework.framework.type.AnnotatedTypeFactory} first
+ * needs a type or declaration annotation of an element of the type, by calling {@link
+ * #resolve(Element)}. A compilation typically uses only a small part of the JDK stub files, so most
+ * of their declarations are never resolved.
+ *
+ * <p>The declarations of a type are resolved in the order of the stub files, so the result is the
+ * same as if all stub files were processed eagerly, one after another.
+ */
+public class StubIndex {
+
+    /** A type or package declaration in a stub file that has not been resolved yet. */
+    private static class Declaration {
+        final StubParser parser;
+        final StubParser.StubDeclaration decl;
+        boolean resolved = false;
+
+        Declaration(StubParser parser, StubParser.StubDeclaration decl) {
+            this.parser = parser;
+            this.decl = decl;
+        }
+    }
+
+    /** The types from stub files, to which resolved declarations add. */
+    private final Map<Element, AnnotatedTypeMirror> atypes;
+
+    /** The declaration annotations from stub files, to which resolved declarations add. */
+    private final Map<String, Set<AnnotationMirror>> declAnnos;
+
+    /** Maps a fully-qualified type or package name to its unresolved declarations. */
+    private final Map<String, List<Declaration>> unresolved = new HashMap<>();
+
+    /** All declarations, in the order of the stub files. */
+    private final List<Declaration> all = new ArrayList<>();
+
+    /** The number of resolutions in progress. */
+    private int resolving = 0;
+
+    /**
+     * Creates an empty index.
+     *
+     * @param atypes the map that resolving a declaration adds annotated types to
+     * @param declAnnos the map that resolving a declaration adds declaration annotations to
+     */
+    public StubIndex(
+            Map<Element, AnnotatedTypeMirror> atypes,
+            Map<String, Set<AnnotationMirror>> declAnnos) {
+        this.atypes = atypes;
+        this.declAnnos = declAnnos;
+    }
+
+    /** Adds a declaration of the type or package {@code name}. */
+    void add(String name, StubParser parser, StubParser.StubDeclaration decl) {
+        Declaration declaration = new Declaration(parser, decl);
+        List<Declaration> declarations = unresolved.get(name);
+        if (declarations == null) {
+            declarations = new ArrayList<>(1);
+            unresolved.put(name, declarations);
+        }
+        declarations.add(declaration);
+        all.add(declaration);
+    }
+
+    /**
+     * Returns true if declarations are being resolved. The annotated types and declaration
+     * annotations computed meanwhile do not contain annotations from stub files, so they must not
+     * be cached.
+     */
+    public boolean isResolving() {
+        return resolving > 0;
+    }
+
+    /**
+     * Resolves the stub file declarations of the type that contains {@code elt}, or of {@code elt}
+     * itself if it is a package. Does nothing if they have been resolved already, or if another
+     * resolution is in progress.
+     *
+     * @param elt an element whose annotated type or declaration annotations are needed
+     */
+    public void resolve(Element elt) {
+        if (unresolved.isEmpty() || resolving > 0) {
+            return;
+        }
+        String name;
+        if (elt.getKind() == ElementKind.PACKAGE) {
+            name = ((PackageElement) elt).getQualifiedName().toString();
+        } else {
+            TypeElement type = ElementUtils.enclosingClass(elt);
+            if (type == null) {
+                return;
+            }
+            name = type.getQualifiedName().toString();
+        }
+        List<Declaration> declarations = unresolved.remove(name);
+        if (declarations != null) {
+            resolve(declarations);
+        }
+    }
+
+    /** Resolves all declarations that have not been resolved yet, in the order of the files. */
+    public void resolveAll() {
+        unresolved.clear();
+        resolve(all);
+    }
+
+    private void resolve(List<Declaration> declarations) {
+        resolving++;
+        try {
+            for (Declaration declaration : declarations) {
+                if (!declaration.resolved) {
+                    declaration.resolved = true;
+                    declaration.parser.resolve(declaration.decl, atypes, declAnnos);
+                }
+            }
+        } finally {
+            resolving--;
+        }
+    }
+}
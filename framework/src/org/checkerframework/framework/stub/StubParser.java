@@ -69,7 +69,10 @@ import org.checkerframework.stubparser.ast.type.ReferenceType;
 import org.checkerframework.stubparser.ast.type.Type;
 import org.checkerframework.stubparser.ast.type.WildcardType;
 
-/** Main entry point is: {@link StubParser#parse(Map, Map)} */
+/**
+ * Main entry point is: {@link StubParser#parse(Map, Map)}, or {@link StubParser#index(StubIndex)} to
+ * resolve the declarations of the stub file on demand.
+ */
 // Full entry point signature:
 // parse(Map<Element, AnnotatedTypeMirror>, Map<String, Set<AnnotationMirror>>)}
 public class StubParser {
@@ -136,6 +139,21 @@ public class StubParser {
             InputStream inputStream,
             AnnotatedTypeFactory factory,
             ProcessingEnvironment env) {
+        this(filename, parseIndexUnit(filename, inputStream), factory, env);
+    }
+
+    /**
+     * @param filename name of stub file
+     * @param parsedindex the syntax tree of the stub file, as returned by {@link JavaParser}
+     * @param factory AnnotatedtypeFactory to use
+     * @param env ProcessingEnviroment to use
+     * @see StubSyntaxParser
+     */
+    public StubParser(
+            String filename,
+            IndexUnit parsedindex,
+            AnnotatedTypeFactory factory,
+            ProcessingEnvironment env) {
         this.filename = filename;
         this.atypeFactory = factory;
         this.processingEnv = env;
@@ -151,14 +169,6 @@ public class StubParser {
         if (debugStubParser) {
             stubDebug(String.format("parsing stub file %s%n", filename));
         }
-        IndexUnit parsedindex;
-        try {
-            parsedindex = JavaParser.parse(inputStream);
-        } catch (Exception e) {
-            ErrorReporter.errorAbort(
-                    "StubParser: exception from JavaParser.parse for file " + filename, e);
-            parsedindex = null; // dead code, but needed for def. assignment checks
-        }
         this.index = parsedindex;
 
         // getSupportedAnnotations also sets imports. This should be refactored to be nicer.
@@ -175,6 +185,17 @@ public class StubParser {
         this.fromStubFile = AnnotationUtils.fromClass(elements, FromStubFile.class);
     }
 
+    /** Parses the syntax of the stub file {@code filename}. */
+    private static IndexUnit parseIndexUnit(String filename, InputStream inputStream) {
+        try {
+            return JavaParser.parse(inputStream);
+        } catch (Exception e) {
+            ErrorReporter.errorAbort(
+                    "StubParser: exception from JavaParser.parse for file " + filename, e);
+            return null; // dead code
+        }
+    }
+
     /** All annotations defined in the package. Keys are simple names. */
     private Map<String, AnnotationMirror> annosInPackage(PackageElement packageElement) {
         return createImportedAnnotationsMap(
@@ -326,6 +347,67 @@ public class StubParser {
         }
     }
 
+    /**
+     * Adds the package and type declarations of the stub file to {@code stubIndex}, which resolves
+     * them on demand. Resolving all of them has the same effect as {@link #parse(Map, Map)}.
+     */
+    public void index(StubIndex stubIndex) {
+        for (CompilationUnit cu : index.getCompilationUnits()) {
+            String packageName = null;
+            if (cu.getPackage() != null) {
+                packageName = cu.getPackage().getName().toString();
+                stubIndex.add(packageName, this, new StubDeclaration(cu, null));
+            }
+            if (cu.getTypes() != null) {
+                for (TypeDeclaration typeDecl : cu.getTypes()) {
+                    stubIndex.add(
+                            getTypeName(packageName, typeDecl),
+                            this,
+                            new StubDeclaration(cu, typeDecl));
+                }
+            }
+        }
+    }
+
+    /** A package declaration, or a type declaration, in a compilation unit of a stub file. */
+    static class StubDeclaration {
+        final CompilationUnit cu;
+
+        /** The type declaration, or null for the package declaration of {@link #cu}. */
+        final /*@Nullable*/ TypeDeclaration typeDecl;
+
+        StubDeclaration(CompilationUnit cu, /*@Nullable*/ TypeDeclaration typeDecl) {
+            this.cu = cu;
+            this.typeDecl = typeDecl;
+        }
+    }
+
+    /** Resolves a declaration that was added to a {@link StubIndex}. Side-effects the maps. */
+    void resolve(
+            StubDeclaration decl,
+            Map<Element, AnnotatedTypeMirror> atypes,
+            Map<String, Set<AnnotationMirror>> declAnnos) {
+        theCompilationUnit = decl.cu;
+        if (decl.typeDecl == null) {
+            parsePackage(decl.cu.getPackage(), atypes, declAnnos);
+        } else if (decl.cu.getPackage() == null) {
+            parse(decl.typeDecl, null, null, atypes, declAnnos);
+        } else {
+            parse(
+                    decl.typeDecl,
+                    decl.cu.getPackage().getName().toString(),
+                    decl.cu.getPackage().getAnnotations(),
+                    atypes,
+                    declAnnos);
+        }
+    }
+
+    /** Returns the fully-qualified name of the type declared by {@code typeDecl}. */
+    private static String getTypeName(/*@Nullable*/ String packageName, TypeDeclaration typeDecl) {
+        return (packageName == null ? "" : packageName + ".")
+                + typeDecl.getName().replace('$', '.');
+    }
+
     private CompilationUnit theCompilationUnit;
 
     private void parse(
@@ -375,9 +457,7 @@ public class StubParser {
             Map<Element, AnnotatedTypeMirror> atypes,
             Map<String, Set<AnnotationMirror>> declAnnos) {
         // Fully-qualified name of the type being parsed
-        String typeName =
-                (packageName == null ? "" : packageName + ".")
-                        + typeDecl.getName().replace('$', '.');
+        String typeName = getTypeName(packageName, typeDecl);
         TypeElement typeElt = elements.getTypeElement(typeName);
         // couldn't find type.  not in class path
         if (typeElt == null) {
@@ -0,0 +1,177 @@
+package org.checkerframework.framework.stub;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.checkerframework.javacutil.ErrorReporter;
+import org.checkerframework.stubparser.JavaParser;
+import org.checkerframework.stubparser.ast.IndexUnit;
+
+/**
+ * Parses the syntax of several stub files at once.
+ *
+ * <p>The contents of the stub files are read into memory when they are added; stub files on disk
+ * are memory-mapped. {@link #parse()} then parses the files on a thread pool, since the syntax of
+ * one stub file does not depend on any other. Resolving the declarations of the parsed files uses
+ * the compiler, which is not thread-safe, so it is left to {@link StubParser}, in the order in
+ * which the files were added.
+ */
+public class StubSyntaxParser {
+
+    /** The names of the stub files, in the order in which they were added. */
+    private final List<String> filenames = new ArrayList<>();
+
+    /** The contents of the stub files, in the order in which they were added. */
+    private final List<ByteBuffer> contents = new ArrayList<>();
+
+    /**
+     * Adds a stub file, reading its contents from {@code in}, which is closed afterwards.
+     *
+     * @param filename the name of the stub file
+     * @param in the contents of the stub file
+     */
+    public void add(String filename, InputStream in) throws IOException {
+        try (InputStream input = in) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            add(filename, ByteBuffer.wrap(out.toByteArray()));
+        }
+    }
+
+    /**
+     * Adds a stub file. A stub file on disk is memory-mapped rather than read.
+     *
+     * @param resource the stub file
+     */
+    public void add(StubResource resource) throws IOException {
+        if (resource instanceof FileStubResource) {
+            try (FileChannel channel =
+                    FileChannel.open(
+                            ((FileStubResource) resource).getFile().toPath(),
+                            StandardOpenOption.READ)) {
+                add(
+                        resource.getDescription(),
+                        channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            }
+        } else {
+            add(resource.getDescription(), resource.getInputStream());
+        }
+    }
+
+    private void add(String filename, ByteBuffer content) {
+        filenames.add(filename);
+        contents.add(content);
+    }
+
+    /** @return the names of the stub files, in the order in which they were added */
+    public List<String> getFilenames() {
+        return filenames;
+    }
+
+    /**
+     * Parses the stub files that were added. Aborts with an error if a stub file cannot be parsed.
+     *
+     * @return the syntax trees of the stub files, in the order in which they were added
+     */
+    public List<IndexUnit> parse() {
+        int threads = Math.min(contents.size(), Runtime.getRuntime().availableProcessors());
+        List<IndexUnit> result = new ArrayList<>(contents.size());
+        if (threads <= 1) {
+            for (int i = 0; i < contents.size(); i++) {
+                try {
+                    result.add(parse(contents.get(i)));
+                } catch (Exception e) {
+                    reportParseError(filenames.get(i), e);
+                }
+            }
+            return result;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<IndexUnit>> futures = new ArrayList<>(contents.size());
+            for (final ByteBuffer content : contents) {
+                futures.add(
+                        executor.submit(
+                                new Callable<IndexUnit>() {
+                                    @Override
+                                    public IndexUnit call() throws Exception {
+                                        return parse(content);
+                                    }
+                                }));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    result.add(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof Error) {
+                        throw (Error) e.getCause();
+                    }
+                    reportParseError(filenames.get(i), e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    reportParseError(filenames.get(i), e);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return result;
+    }
+
+    /** Parses the stub file with contents {@code content}. */
+    private static IndexUnit parse(ByteBuffer content) throws Exception {
+        return JavaParser.parseWithNewParser(new ByteBufferInputStream(content.duplicate()), null);
+    }
+
+    private static void reportParseError(String filename, Throwable e) {
+        ErrorReporter.errorAbort(
+                "StubParser: exception from JavaParser.parse for file " + filename, e);
+    }
+
+    /** An input stream that reads the remaining bytes of a buffer. */
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(len, buffer.remaining());
+            buffer.get(b, off, count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -82,8 +82,10 @@ import org.checkerframework.framework.qual.PolymorphicQualifier;
 import org.checkerframework.framework.qual.StubFiles;
 import org.checkerframework.framework.qual.SubtypeOf;
 import org.checkerframework.framework.source.SourceChecker;
+import org.checkerframework.framework.stub.StubIndex;
 import org.checkerframework.framework.stub.StubParser;
 import org.checkerframework.framework.stub.StubResource;
+import org.checkerframework.framework.stub.StubSyntaxParser;
 import org.checkerframework.framework.stub.StubUtil;
 import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedArrayType;
 import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedDeclaredType;
@@ -102,6 +104,7 @@ import org.checkerframework.framework.util.GraphQualifierHierarchy;
 import org.checkerframework.framework.util.MultiGraphQualifierHierarchy;
 import org.checkerframework.framework.util.MultiGraphQualifierHierarchy.MultiGraphFactory;
 import org.checkerframework.framework.util.TreePathCacher;
+import org.checkerframework.framework.util.element.LibraryElementAnnotations;
 import org.checkerframework.framework.util.typeinference.DefaultTypeArgumentInference;
 import org.checkerframework.framework.util.typeinference.TypeArgumentInference;
 import org.checkerframework.javacutil.AnnotationProvider;
@@ -114,6 +117,7 @@ import org.checkerframework.javacutil.Pair;
 import org.checkerframework.javacutil.TreeUtils;
 import org.checkerframework.javacutil.TypesUtils;
 import org.checkerframework.javacutil.trees.DetachedVarSymbol;
+import org.checkerframework.stubparser.ast.IndexUnit;
 
 /**
  * The methods of this class take an element or AST node, and return the annotated type as an {@link
@@ -222,6 +226,13 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
     // Not final, because it is assigned in postInit().
     private Map<String, Set<AnnotationMirror>> declAnnosFromStubFiles;
 
+    /**
+     * The declarations of the stub files that have not been resolved into {@link
+     * #typesFromStubFiles} and {@link #declAnnosFromStubFiles} yet. Null until the stub files have
+     * been parsed.
+     */
+    private StubIndex stubIndex;
+
     /**
      * A cache used to store elements whose declaration annotations have already been stored by
      * calling the method {@link #getDeclAnnotations(Element)}.
@@ -302,6 +313,35 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
      */
     private final Map<Element, AnnotatedTypeMirror> elementCache;
 
+    /**
+     * Mapping from an Element declared in a class file to its annotated type; before implicits are
+     * applied. These types do not change during a compilation, so this cache is much larger than
+     * {@link #elementCache} and is never cleared.
+     */
+    private final Map<Element, AnnotatedTypeMirror> bytecodeElementCache;
+
+    /** The annotations of library elements, shared by all factories of the compilation. */
+    private final LibraryElementAnnotations libraryElementAnnotations;
+
+    /** Size of {@link #bytecodeElementCache}. */
+    private static final int BYTECODE_ELEMENT_CACHE_SIZE = 20000;
+
+    /** The classes whose members are put into the caches by the atfWarmCache option by default. */
+    private static final String[] DEFAULT_WARM_CACHE_CLASSES = {
+        "java.lang.Object",
+        "java.lang.String",
+        "java.lang.StringBuilder",
+        "java.lang.Integer",
+        "java.util.Collection",
+        "java.util.Iterator",
+        "java.util.List",
+        "java.util.ArrayList",
+        "java.util.Map",
+        "java.util.HashMap",
+        "java.util.Set",
+        "java.util.HashSet"
+    };
+
     /** Mapping from an Element to the source Tree of the declaration. */
     private final Map<Element, Tree> elementToTreeCache;
 
@@ -335,6 +375,9 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
         this.fromStubFile = AnnotationUtils.fromClass(elements, FromStubFile.class);
 
         this.cacheDeclAnnos = new HashMap<Element, Set<AnnotationMirror>>();
+        this.libraryElementAnnotations =
+                LibraryElementAnnotations.instance(
+                        ((JavacProcessingEnvironment) processingEnv).getContext());
 
         this.shouldCache = !checker.hasOption("atfDoNotCache");
         if (shouldCache) {
@@ -342,11 +385,15 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
             this.classAndMethodTreeCache = CollectionUtils.createLRUCache(cacheSize);
             this.fromTreeCache = CollectionUtils.createLRUCache(cacheSize);
             this.elementCache = CollectionUtils.createLRUCache(cacheSize);
+            this.bytecodeElementCache =
+                    CollectionUtils.createLRUCache(
+                            Math.max(cacheSize, BYTECODE_ELEMENT_CACHE_SIZE));
             this.elementToTreeCache = CollectionUtils.createLRUCache(cacheSize);
         } else {
             this.classAndMethodTreeCache = null;
             this.fromTreeCache = null;
             this.elementCache = null;
+            this.bytecodeElementCache = null;
             this.elementToTreeCache = null;
         }
 
@@ -507,9 +554,10 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
         fromTreeCache.clear();
         classAndMethodTreeCache.clear();
 
-        // There is no need to clear the following cache, it is limited by cache size and it
-        // contents won't change between compilation units.
+        // There is no need to clear the following caches, they are limited by cache size and
+        // their contents won't change between compilation units.
         // elementCache.clear();
+        // bytecodeElementCache.clear();
     }
 
     @SideEffectFree
@@ -886,7 +934,7 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
      *
      * @return cache size passed as argument to checker or DEFAULT_CACHE_SIZE
      */
-    private int getCacheSize() {
+    protected int getCacheSize() {
         String option = checker.getOption("atfCacheSize");
         if (option == null) {
             return DEFAULT_CACHE_SIZE;
@@ -1031,6 +1079,24 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
     // They only include qualifiers explicitly inserted by the user.
     // **********************************************************************
 
+    /**
+     * Returns false if {@code elt} is a library element none of whose annotations belongs to this
+     * type system, so that {@link ElementAnnotationApplier} would not add any annotation to its
+     * type.
+     */
+    private boolean mayHaveElementAnnotations(Element elt) {
+        List<AnnotationMirror> annos = libraryElementAnnotations.getAnnotations(elt);
+        if (annos == null) {
+            return true;
+        }
+        for (AnnotationMirror anno : annos) {
+            if (isSupportedQualifier(anno) || isSupportedQualifier(aliasedAnnotation(anno))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Creates an AnnotatedTypeMirror for {@code elt} that includes: annotations explicitly written
      * on the element and annotations from stub files
@@ -1039,12 +1105,22 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
      * @return AnnotatedTypeMirror of the element with explicitly-written and stub file annotations
      */
     public AnnotatedTypeMirror fromElement(Element elt) {
-        if (shouldCache && elementCache.containsKey(elt)) {
-            return elementCache.get(elt).deepCopy();
+        if (shouldCache) {
+            AnnotatedTypeMirror cached = bytecodeElementCache.get(elt);
+            if (cached == null) {
+                cached = elementCache.get(elt);
+            }
+            if (cached != null) {
+                return cached.deepCopy();
+            }
         }
         if (elt.getKind() == ElementKind.PACKAGE) {
             return toAnnotatedType(elt.asType(), false);
         }
+        if (stubIndex != null) {
+            stubIndex.resolve(elt);
+        }
+        boolean stubFilesReady = stubFilesReady();
         AnnotatedTypeMirror type;
 
         // Because of a bug in Java 8, annotations on type parameters are not stored in elements,
@@ -1053,12 +1129,22 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
         // the annotations have to be retrived from the tree so that only explicit annotations are returned.
         Tree decl = declarationFromElement(elt);
 
-        if (decl == null && typesFromStubFiles != null && typesFromStubFiles.containsKey(elt)) {
+        if (decl == null && stubFilesReady && typesFromStubFiles.containsKey(elt)) {
             type = typesFromStubFiles.get(elt).deepCopy();
-        } else if (decl == null
-                && (typesFromStubFiles == null || !typesFromStubFiles.containsKey(elt))) {
+        } else if (decl == null && (!stubFilesReady || !typesFromStubFiles.containsKey(elt))) {
             type = toAnnotatedType(elt.asType(), ElementUtils.isTypeDeclaration(elt));
-            ElementAnnotationApplier.apply(type, elt, this);
+            if (mayHaveElementAnnotations(elt)) {
+                ElementAnnotationApplier.apply(type, elt, this);
+            } else if (type.getKind() == TypeKind.EXECUTABLE) {
+                // Initialize the element and component types, as MethodApplier would.
+                AnnotatedExecutableType methodType = (AnnotatedExecutableType) type;
+                methodType.setElement((ExecutableElement) elt);
+                methodType.getReturnType();
+                methodType.getReceiverType();
+                methodType.getParameterTypes();
+                methodType.getThrownTypes();
+                methodType.getTypeVariables();
+            }
 
             if (elt instanceof ExecutableElement || elt instanceof VariableElement) {
                 annotateInheritedFromClass(type);
@@ -1080,11 +1166,15 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
             type = null; // dead code
         }
 
-        // Caching is disabled if typesFromStubFiles == null, because calls to this
-        // method before the stub files are fully read can return incorrect
-        // results.
-        if (shouldCache && typesFromStubFiles != null) {
-            elementCache.put(elt, type.deepCopy());
+        // Caching is disabled until the stub files are read and while stub file
+        // declarations are being resolved, because calls to this method
+        // meanwhile can return incorrect results.
+        if (shouldCache && stubFilesReady) {
+            if (decl == null && ElementUtils.isElementFromByteCode(elt)) {
+                bytecodeElementCache.put(elt, type.deepCopy());
+            } else {
+                elementCache.put(elt, type.deepCopy());
+            }
         }
         return type;
     }
@@ -1094,7 +1184,7 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
      * already annotated with @FromStubFile
      */
     private void addFromByteCode(Element elt) {
-        if (declAnnosFromStubFiles == null) { // || trees.getTree(elt) != null) {
+        if (!stubFilesReady()) { // || trees.getTree(elt) != null) {
             // Parsing stub files, don't add @FromByteCode
             return;
         }
@@ -2608,6 +2698,9 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
      * <p>If a type is annotated with a qualifier from the same hierarchy in more than one stub
      * file, the qualifier in the last stub file is applied.
      *
+     * <p>The declarations in the stub files are resolved on demand, when the type or declaration
+     * annotations of an element of a type are first needed; see {@link StubIndex}.
+     *
      * <p>Sets typesFromStubFiles and declAnnosFromStubFiles by side effect, just before returning.
      */
     protected void parseStubFiles() {
@@ -2619,14 +2712,16 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
                 new HashMap<Element, AnnotatedTypeMirror>();
         Map<String, Set<AnnotationMirror>> declAnnosFromStubFiles =
                 new HashMap<String, Set<AnnotationMirror>>();
+        StubIndex stubIndex = new StubIndex(typesFromStubFiles, declAnnosFromStubFiles);
+        // The syntax of all stub files is parsed at once, at the end.
+        StubSyntaxParser stubSyntaxParser = new StubSyntaxParser();
 
         // 1. jdk.astub
         if (!checker.hasOption("ignorejdkastub")) {
             InputStream in = null;
             in = checker.getClass().getResourceAsStream("jdk.astub");
             if (in != null) {
-                StubParser stubParser = new StubParser("jdk.astub", in, this, processingEnv);
-                stubParser.parse(typesFromStubFiles, declAnnosFromStubFiles);
+                addStubFile(stubSyntaxParser, "jdk.astub", in);
             }
         }
 
@@ -2634,8 +2729,7 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
         // stub file for type-system independent annotations
         InputStream input = BaseTypeChecker.class.getResourceAsStream("flow.astub");
         if (input != null) {
-            StubParser stubParser = new StubParser("flow.astub", input, this, processingEnv);
-            stubParser.parse(typesFromStubFiles, declAnnosFromStubFiles);
+            addStubFile(stubSyntaxParser, "flow.astub", input);
         }
 
         // Stub files specified via stubs compiler option, stubs system property,
@@ -2666,12 +2760,6 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
             Collections.addAll(allStubFiles, stubsOption.split(File.pathSeparator));
         }
 
-        if (allStubFiles.isEmpty()) {
-            this.typesFromStubFiles = typesFromStubFiles;
-            this.declAnnosFromStubFiles = declAnnosFromStubFiles;
-            return;
-        }
-
         // Parse stub files specified via stubs compiler option, stubs system property,
         // stubs env. variable, or @Stubfiles
         for (String stubPath : allStubFiles) {
@@ -2689,8 +2777,7 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
                 InputStream in = null;
                 in = checker.getClass().getResourceAsStream(stubPath);
                 if (in != null) {
-                    StubParser stubParser = new StubParser(stubPath, in, this, processingEnv);
-                    stubParser.parse(typesFromStubFiles, declAnnosFromStubFiles);
+                    addStubFile(stubSyntaxParser, stubPath, in);
                     // We could handle the stubPath -> continue.
                     continue;
                 }
@@ -2703,23 +2790,93 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
                                 + new File(stubPath).getAbsolutePath());
             }
             for (StubResource resource : stubs) {
-                InputStream stubStream;
                 try {
-                    stubStream = resource.getInputStream();
+                    stubSyntaxParser.add(resource);
                 } catch (IOException e) {
                     checker.message(
                             Kind.NOTE,
                             "Could not read stub resource: " + resource.getDescription());
-                    continue;
                 }
-                StubParser stubParser =
-                        new StubParser(resource.getDescription(), stubStream, this, processingEnv);
-                stubParser.parse(typesFromStubFiles, declAnnosFromStubFiles);
             }
         }
 
+        List<String> filenames = stubSyntaxParser.getFilenames();
+        List<IndexUnit> indexUnits = stubSyntaxParser.parse();
+        for (int i = 0; i < filenames.size(); i++) {
+            StubParser stubParser =
+                    new StubParser(filenames.get(i), indexUnits.get(i), this, processingEnv);
+            stubParser.index(stubIndex);
+        }
+
+        setStubFiles(typesFromStubFiles, declAnnosFromStubFiles, stubIndex);
+    }
+
+    /** Adds the stub file {@code filename} with contents {@code in} to {@code stubSyntaxParser}. */
+    private void addStubFile(StubSyntaxParser stubSyntaxParser, String filename, InputStream in) {
+        try {
+            stubSyntaxParser.add(filename, in);
+        } catch (IOException e) {
+            checker.message(Kind.NOTE, "Could not read stub resource: " + filename);
+        }
+    }
+
+    /**
+     * Makes the parsed stub files available. Their declarations are resolved on demand, unless one
+     * of the options that report problems in stub files is given. Then all declarations are
+     * resolved right away, so that all problems are reported.
+     */
+    private void setStubFiles(
+            Map<Element, AnnotatedTypeMirror> typesFromStubFiles,
+            Map<String, Set<AnnotationMirror>> declAnnosFromStubFiles,
+            StubIndex stubIndex) {
+        if (checker.hasOption("stubWarnIfNotFound")
+                || checker.hasOption("stubWarnIfOverwritesBytecode")
+                || checker.hasOption("stubDebug")) {
+            stubIndex.resolveAll();
+        }
         this.typesFromStubFiles = typesFromStubFiles;
         this.declAnnosFromStubFiles = declAnnosFromStubFiles;
+        this.stubIndex = stubIndex;
+        warmUpElementCache();
+    }
+
+    /**
+     * Returns true if the stub files have been parsed and no stub file declarations are being
+     * resolved. Otherwise, annotated types and declaration annotations do not contain the
+     * annotations from stub files yet.
+     */
+    private boolean stubFilesReady() {
+        return typesFromStubFiles != null && !stubIndex.isResolving();
+    }
+
+    /**
+     * If the atfWarmCache option is given, computes the types of the frequently used library
+     * classes named by the option, or of {@link #DEFAULT_WARM_CACHE_CLASSES} if the option has no
+     * value, and of their fields and methods, so that later lookups hit the element cache.
+     *
+     * <p>Must be called after the stub files have been parsed, because no types are cached before.
+     */
+    private void warmUpElementCache() {
+        if (!shouldCache || !checker.hasOption("atfWarmCache")) {
+            return;
+        }
+        String option = checker.getOption("atfWarmCache");
+        String[] classNames =
+                (option == null || option.isEmpty())
+                        ? DEFAULT_WARM_CACHE_CLASSES
+                        : option.split(",");
+        for (String className : classNames) {
+            TypeElement classElt = elements.getTypeElement(className.trim());
+            if (classElt == null) {
+                continue;
+            }
+            fromElement(classElt);
+            for (Element member : classElt.getEnclosedElements()) {
+                if (member instanceof ExecutableElement || member instanceof VariableElement) {
+                    fromElement(member);
+                }
+            }
+        }
     }
 
     /**
@@ -2833,11 +2990,14 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
             return cacheDeclAnnos.get(elt);
         }
 
+        if (stubIndex != null) {
+            stubIndex.resolve(elt);
+        }
         Set<AnnotationMirror> results = AnnotationUtils.createAnnotationSet();
         // Retrieving the annotations from the element.
         results.addAll(elt.getAnnotationMirrors());
-        // If declAnnosFromStubFiles == null, return the annotations in the element.
-        if (declAnnosFromStubFiles != null) {
+        // If the stub files are not ready, return the annotations in the element.
+        if (stubFilesReady()) {
             // Adding @FromByteCode annotation to declAnnosFromStubFiles entry with key
             // elt, if elt is from bytecode.
             addFromByteCode(elt);
@@ -142,7 +142,7 @@ public abstract class AnnotatedTypeMirror {
     // the class name of Annotation instead.
     // Caution: Assumes that a type can have at most one AnnotationMirror for
     // any Annotation type. JSR308 is pushing to have this change.
-    private final Set<AnnotationMirror> annotations = AnnotationUtils.createAnnotationSet();
+    private final PrimaryAnnotationSet annotations;
 
     /** The explicitly written annotations on this type. */
     // TODO: use this to cache the result once computed? For generic types?
@@ -160,6 +160,7 @@ public abstract class AnnotatedTypeMirror {
         assert atypeFactory != null;
         this.atypeFactory = atypeFactory;
         this.formatter = atypeFactory.typeFormatter;
+        this.annotations = new PrimaryAnnotationSet(atypeFactory);
     }
 
     @Override
@@ -254,6 +255,10 @@ public abstract class AnnotatedTypeMirror {
         }
         if (atypeFactory.isSupportedQualifier(aliased)) {
             QualifierHierarchy qualHier = this.atypeFactory.getQualifierHierarchy();
+            int index = qualHier.getHierarchyIndex(aliased);
+            if (index >= 0 && annotations.allInSlots()) {
+                return annotations.getInSlot(index);
+            }
             AnnotationMirror anno = qualHier.findAnnotationInSameHierarchy(annotations, aliased);
             if (anno != null) {
                 return anno;
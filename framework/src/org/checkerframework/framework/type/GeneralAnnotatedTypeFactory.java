@@ -75,6 +75,12 @@ class GeneralQualifierHierarchy extends MultiGraphQualifierHierarchy {
         return start;
     }
 
+    // Qualifiers are not grouped into hierarchies.
+    @Override
+    public int getHierarchyIndex(AnnotationMirror qualifier) {
+        return -1;
+    }
+
     // Never find a corresponding qualifier.
     @Override
     public AnnotationMirror findAnnotationInSameHierarchy(
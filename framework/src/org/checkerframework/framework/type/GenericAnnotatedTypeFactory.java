@@ -26,6 +26,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Deque;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.IdentityHashMap;
@@ -36,6 +37,8 @@ import java.util.Queue;
 import java.util.Set;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.Modifier;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.VariableElement;
@@ -47,6 +50,7 @@ import org.checkerframework.dataflow.analysis.AnalysisResult;
 import org.checkerframework.dataflow.analysis.FlowExpressions;
 import org.checkerframework.dataflow.analysis.FlowExpressions.FieldAccess;
 import org.checkerframework.dataflow.analysis.FlowExpressions.LocalVariable;
+import org.checkerframework.dataflow.analysis.RegularTransferResult;
 import org.checkerframework.dataflow.analysis.TransferInput;
 import org.checkerframework.dataflow.analysis.TransferResult;
 import org.checkerframework.dataflow.cfg.CFGBuilder;
@@ -59,6 +63,10 @@ import org.checkerframework.dataflow.cfg.UnderlyingAST.CFGMethod;
 import org.checkerframework.dataflow.cfg.UnderlyingAST.CFGStatement;
 import org.checkerframework.dataflow.cfg.node.Node;
 import org.checkerframework.dataflow.cfg.node.ReturnNode;
+import org.checkerframework.dataflow.qual.Pure;
+import org.checkerframework.dataflow.util.PurityChecker;
+import org.checkerframework.dataflow.util.PurityChecker.PurityResult;
+import org.checkerframework.dataflow.util.PurityUtils;
 import org.checkerframework.framework.flow.CFAbstractAnalysis;
 import org.checkerframework.framework.flow.CFAbstractStore;
 import org.checkerframework.framework.flow.CFAbstractTransfer;
@@ -78,6 +86,7 @@ import org.checkerframework.framework.qual.MonotonicQualifier;
 import org.checkerframework.framework.qual.RelevantJavaTypes;
 import org.checkerframework.framework.qual.TypeUseLocation;
 import org.checkerframework.framework.qual.Unqualified;
+import org.checkerframework.framework.source.Result;
 import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedDeclaredType;
 import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedExecutableType;
 import org.checkerframework.framework.type.treeannotator.ImplicitsTreeAnnotator;
@@ -92,11 +101,14 @@ import org.checkerframework.framework.type.typeannotator.TypeAnnotator;
 import org.checkerframework.framework.util.AnnotatedTypes;
 import org.checkerframework.framework.util.FlowExpressionParseUtil;
 import org.checkerframework.framework.util.FlowExpressionParseUtil.FlowExpressionParseException;
+import org.checkerframework.framework.util.PuritySummaries;
 import org.checkerframework.framework.util.QualifierPolymorphism;
 import org.checkerframework.framework.util.defaults.QualifierDefaults;
 import org.checkerframework.framework.util.dependenttypes.DependentTypesHelper;
 import org.checkerframework.framework.util.typeinference.TypeArgInferenceUtil;
 import org.checkerframework.javacutil.AnnotationUtils;
+import org.checkerframework.javacutil.CollectionUtils;
+import org.checkerframework.javacutil.ElementUtils;
 import org.checkerframework.javacutil.ErrorReporter;
 import org.checkerframework.javacutil.InternalUtils;
 import org.checkerframework.javacutil.Pair;
@@ -164,6 +176,36 @@ public abstract class GenericAnnotatedTypeFactory<
     /** An empty store. */
     private Store emptyStore;
 
+    /**
+     * The maximum number of transfer function invocations for the dataflow analysis of one method,
+     * lambda, or initializer, or -1 for no limit. Set by the flowBudget option.
+     */
+    private final int flowBudget;
+
+    /**
+     * The maximum duration in milliseconds of the dataflow analysis of one method, lambda, or
+     * initializer, or -1 for no limit. Set by the flowTimeBudget option.
+     */
+    private final long flowTimeBudget;
+
+    /**
+     * Should dataflow skip values whose Java type is not relevant according to the {@link
+     * RelevantJavaTypes} annotation on the checker? Set by the sparseFlow option.
+     */
+    private final boolean sparseFlow;
+
+    /**
+     * Adds top to the types that are not relevant, or null if the checker has no {@link
+     * RelevantJavaTypes} annotation.
+     */
+    private IrrelevantTypeAnnotator irrelevantTypeAnnotator;
+
+    /** Should the purity of unannotated methods be inferred? Set by the inferPurity option. */
+    private final boolean inferPurity;
+
+    /** Caches the results of {@link #isSideEffectFree(ExecutableElement)}. */
+    private final Map<ExecutableElement, Boolean> sideEffectFreeCache;
+
     /**
      * Creates a type factory for checking the given compilation unit with respect to the given
      * annotation.
@@ -187,6 +229,12 @@ public abstract class GenericAnnotatedTypeFactory<
         this.initializationStore = null;
         this.initializationStaticStore = null;
 
+        this.flowBudget = (int) getBudgetOption("flowBudget");
+        this.flowTimeBudget = getBudgetOption("flowTimeBudget");
+        this.sparseFlow = checker.hasOption("sparseFlow");
+        this.inferPurity = checker.hasOption("inferPurity");
+        this.sideEffectFreeCache = CollectionUtils.createLRUCache(getCacheSize());
+
         this.cfgVisualizer = createCFGVisualizer();
 
         // Add common aliases.
@@ -211,6 +259,29 @@ public abstract class GenericAnnotatedTypeFactory<
         this.parseStubFiles();
     }
 
+    /**
+     * Returns the value of a dataflow budget option, or -1 if the option is not given.
+     *
+     * @param option the name of the option
+     * @return the non-negative value of the option, or -1
+     */
+    private long getBudgetOption(String option) {
+        String value = checker.getOption(option);
+        if (value == null) {
+            return -1;
+        }
+        try {
+            int budget = Integer.valueOf(value);
+            if (budget >= 0) {
+                return budget;
+            }
+        } catch (NumberFormatException ex) {
+            // reported below
+        }
+        ErrorReporter.errorAbort(option + " was not a non-negative integer: " + value);
+        return -1; // dead code
+    }
+
     /**
      * Preforms flow-sensitive type refinement on {@code classTree} if this type factory is
      * configured to do so.
@@ -237,6 +308,9 @@ public abstract class GenericAnnotatedTypeFactory<
     @Override
     public void setRoot(/*@Nullable*/ CompilationUnitTree root) {
         super.setRoot(root);
+        if (this.defaults != null) {
+            this.defaults.setRoot(root);
+        }
         this.analyses.clear();
         this.scannedClasses.clear();
         this.flowResult = null;
@@ -320,9 +394,10 @@ public abstract class GenericAnnotatedTypeFactory<
             Class<?>[] classes = relevantJavaTypes.value();
             // Must be first in order to annotated all irrelevant types that are not explicilty
             // annotated.
-            typeAnnotators.add(
+            irrelevantTypeAnnotator =
                     new IrrelevantTypeAnnotator(
-                            this, getQualifierHierarchy().getTopAnnotations(), classes));
+                            this, getQualifierHierarchy().getTopAnnotations(), classes);
+            typeAnnotators.add(irrelevantTypeAnnotator);
         }
         typeAnnotators.add(new PropagationTypeAnnotator(this));
         implicitsTypeAnnotator = new ImplicitsTypeAnnotator(this);
@@ -330,6 +405,122 @@ public abstract class GenericAnnotatedTypeFactory<
         return new ListTypeAnnotator(typeAnnotators);
     }
 
+    /**
+     * Returns true if the dataflow analysis should compute and store values of type {@code type}.
+     *
+     * <p>This is false only if the sparseFlow option is given, {@link #supportsSparseFlow} returns
+     * true, and {@code type} is a primitive, declared, or array type that is neither relevant
+     * according to the {@link RelevantJavaTypes} annotation on the checker nor a supertype of a
+     * relevant type.
+     *
+     * @param type a Java type
+     * @return true if the dataflow analysis should track values of type {@code type}
+     */
+    public boolean isRelevantForFlow(TypeMirror type) {
+        if (!sparseFlow || irrelevantTypeAnnotator == null || !supportsSparseFlow()) {
+            return true;
+        }
+        switch (type.getKind()) {
+            case DECLARED:
+            case ARRAY:
+                return irrelevantTypeAnnotator.mayHoldRelevantValues(type);
+            default:
+                return !type.getKind().isPrimitive()
+                        || irrelevantTypeAnnotator.mayHoldRelevantValues(type);
+        }
+    }
+
+    /**
+     * Returns true if {@code method} is side-effect-free. The result is computed once per method.
+     *
+     * <p>A method is side-effect-free if it is annotated as such, or if {@link
+     * #getInferredPurity(ExecutableElement)} determines that it is.
+     *
+     * @param method a method or constructor
+     * @return true if {@code method} is side-effect-free
+     */
+    public boolean isSideEffectFree(ExecutableElement method) {
+        Boolean result = sideEffectFreeCache.get(method);
+        if (result == null) {
+            if (PurityUtils.isSideEffectFree(this, method)) {
+                result = true;
+            } else {
+                EnumSet<Pure.Kind> kinds = getInferredPurity(method);
+                result = kinds != null && kinds.contains(Pure.Kind.SIDE_EFFECT_FREE);
+            }
+            sideEffectFreeCache.put(method, result);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the purity of an unannotated method, or null if it is unknown.
+     *
+     * <p>For a method from a class file, the purity is looked up in the summaries read from the
+     * file given by the puritySummaries option. For a method in the compiled sources, the purity is
+     * inferred by checking the body of the method, if the inferPurity option is given and the
+     * method cannot be overridden. Inferred results are shared with the other checkers of this
+     * compilation and written to the summaries file, if any.
+     *
+     * @param method a method or constructor
+     * @return the purity kinds of {@code method}, or null if they are unknown
+     */
+    protected /*@Nullable*/ EnumSet<Pure.Kind> getInferredPurity(ExecutableElement method) {
+        PuritySummaries summaries = checker.getPuritySummaries();
+        if (ElementUtils.isElementFromByteCode(method)) {
+            return summaries.get(method);
+        }
+        if (!inferPurity || !canInferPurity(method)) {
+            return null;
+        }
+        // Another checker of this compilation may have inferred the purity already.
+        EnumSet<Pure.Kind> inferred = summaries.getInferred(method);
+        if (inferred != null) {
+            return inferred;
+        }
+        Tree decl = declarationFromElement(method);
+        if (decl == null || decl.getKind() != Tree.Kind.METHOD) {
+            return null;
+        }
+        BlockTree body = ((MethodTree) decl).getBody();
+        if (body == null) {
+            return null;
+        }
+        PurityResult purity =
+                PurityChecker.checkPurity(body, this, checker.hasOption("assumeSideEffectFree"));
+        EnumSet<Pure.Kind> kinds = EnumSet.copyOf(purity.getTypes());
+        summaries.put(method, kinds);
+        return kinds;
+    }
+
+    /**
+     * Returns true if the purity of {@code method} may be inferred from its body, i.e. if it is a
+     * method that cannot be overridden.
+     */
+    protected boolean canInferPurity(ExecutableElement method) {
+        if (method.getKind() != ElementKind.METHOD) {
+            return false;
+        }
+        Set<Modifier> modifiers = method.getModifiers();
+        return modifiers.contains(Modifier.PRIVATE)
+                || modifiers.contains(Modifier.STATIC)
+                || modifiers.contains(Modifier.FINAL)
+                || ElementUtils.isFinal(ElementUtils.enclosingClass(method));
+    }
+
+    /**
+     * Returns true if values of the types that are not relevant according to the {@link
+     * RelevantJavaTypes} annotation on the checker always have the top annotation, so that the
+     * sparseFlow option may skip them in the dataflow analysis. A checker whose type factory or
+     * transfer function gives non-top annotations to values of other types, for example to the
+     * results of particular methods, must override this method to return false.
+     *
+     * @return true if the dataflow analysis may skip values of irrelevant types
+     */
+    protected boolean supportsSparseFlow() {
+        return true;
+    }
+
     protected void addTypeNameImplicit(Class<?> clazz, AnnotationMirror implicitAnno) {
         implicitsTypeAnnotator.addTypeName(clazz, implicitAnno);
     }
@@ -917,6 +1108,10 @@ public abstract class GenericAnnotatedTypeFactory<
                             if (mt.getBody() == null) {
                                 break;
                             }
+                            // Unchanged methods of the baseline are not analyzed either.
+                            if (checker.isUnchangedSinceBaseline(mt)) {
+                                break;
+                            }
 
                             // Wait with scanning the method until all other members
                             // have been processed.
@@ -1071,6 +1266,7 @@ public abstract class GenericAnnotatedTypeFactory<
         CFGBuilder builder = new CFCFGBuilder(checker, this);
         ControlFlowGraph cfg = builder.run(root, processingEnv, ast);
         FlowAnalysis newAnalysis = createFlowAnalysis(fieldValues);
+        newAnalysis.setBudget(flowBudget, flowTimeBudget);
         TransferFunction transfer = newAnalysis.getTransferFunction();
         if (emptyStore == null) {
             emptyStore = newAnalysis.createEmptyStore(transfer.usesSequentialSemantics());
@@ -1090,22 +1286,42 @@ public abstract class GenericAnnotatedTypeFactory<
             }
         }
         analyses.getFirst().performAnalysis(cfg);
-        AnalysisResult<Value, Store> result = analyses.getFirst().getResult();
 
-        // store result
-        flowResult.combine(result);
+        // If the analysis exceeded its budget, its results are incomplete. Then the declared
+        // types are used for the code, and the exit stores contain no information.
+        boolean budgetExceeded = analyses.getFirst().isBudgetExceeded();
+        Store regularExitStore;
+        if (budgetExceeded) {
+            reportFlowBudgetExceeded(ast);
+            regularExitStore = emptyStore.copy();
+        } else {
+            AnalysisResult<Value, Store> result = analyses.getFirst().getResult();
+
+            // store result
+            flowResult.combine(result);
+            regularExitStore = analyses.getFirst().getRegularExitStore();
+        }
+
         if (ast.getKind() == UnderlyingAST.Kind.METHOD) {
             // store exit store (for checking postconditions)
             CFGMethod mast = (CFGMethod) ast;
             MethodTree method = mast.getMethod();
-            Store regularExitStore = analyses.getFirst().getRegularExitStore();
             if (regularExitStore != null) {
                 regularExitStores.put(method, regularExitStore);
             }
-            returnStatementStores.put(method, analyses.getFirst().getReturnStatementStores());
+            if (budgetExceeded) {
+                List<Pair<ReturnNode, TransferResult<Value, Store>>> stores = new ArrayList<>();
+                for (ReturnNode returnNode : cfg.getReturnNodes()) {
+                    TransferResult<Value, Store> store =
+                            new RegularTransferResult<Value, Store>(null, emptyStore.copy());
+                    stores.add(Pair.of(returnNode, store));
+                }
+                returnStatementStores.put(method, stores);
+            } else {
+                returnStatementStores.put(method, analyses.getFirst().getReturnStatementStores());
+            }
         } else if (ast.getKind() == UnderlyingAST.Kind.ARBITRARY_CODE) {
             CFGStatement block = (CFGStatement) ast;
-            Store regularExitStore = analyses.getFirst().getRegularExitStore();
             if (regularExitStore != null) {
                 regularExitStores.put(block.getCode(), regularExitStore);
             }
@@ -1113,14 +1329,13 @@ public abstract class GenericAnnotatedTypeFactory<
             // TODO: Postconditions?
 
             CFGLambda block = (CFGLambda) ast;
-            Store regularExitStore = analyses.getFirst().getRegularExitStore();
             if (regularExitStore != null) {
                 regularExitStores.put(block.getCode(), regularExitStore);
             }
         }
 
         if (isInitializationCode && updateInitializationStore) {
-            Store newInitStore = analyses.getFirst().getRegularExitStore();
+            Store newInitStore = budgetExceeded ? null : regularExitStore;
             if (!isStatic) {
                 initializationStore = newInitStore;
             } else {
@@ -1141,6 +1356,30 @@ public abstract class GenericAnnotatedTypeFactory<
         }
     }
 
+    /**
+     * Reports that the dataflow analysis of {@code ast} exceeded the budget set by the flowBudget
+     * or flowTimeBudget option.
+     */
+    protected void reportFlowBudgetExceeded(UnderlyingAST ast) {
+        switch (ast.getKind()) {
+            case METHOD:
+                MethodTree method = ((CFGMethod) ast).getMethod();
+                checker.report(
+                        Result.warning("flow.budget.exceeded", "method " + method.getName()),
+                        method);
+                break;
+            case LAMBDA:
+                checker.report(
+                        Result.warning("flow.budget.exceeded", "lambda expression"),
+                        ((CFGLambda) ast).getLambdaTree());
+                break;
+            default:
+                checker.report(
+                        Result.warning("flow.budget.exceeded", "initializer"), ast.getCode());
+                break;
+        }
+    }
+
     /**
      * Handle the visualization of the CFG, by calling {@code visualizeCFG} on the first analysis.
      * This method gets invoked in {@code analyze} if on of the visualization options is provided.
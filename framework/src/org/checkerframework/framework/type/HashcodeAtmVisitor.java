@@ -1,6 +1,14 @@
 package org.checkerframework.framework.type;
 
+import java.util.Map;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.TypeVariable;
 import org.checkerframework.framework.type.visitor.AnnotatedTypeScanner;
+import org.checkerframework.javacutil.AnnotationUtils;
 
 /**
  * Computes the hashcode of an AnnotatedTypeMirror using the underlying type and primary annotations
@@ -40,6 +48,14 @@ public class HashcodeAtmVisitor extends AnnotatedTypeScanner<Integer, Void> {
      * Generates hashcode for type using the underlying type and the primary annotation. This method
      * does not descend into component types (this occurs in the scan method)
      *
+     * <p>Equal types have the same underlying type and the same annotations, so the hashcode uses
+     * the names and the element values of the annotations, as {@link
+     * AnnotationUtils#areSame(AnnotationMirror, AnnotationMirror)} compares them, and, for declared
+     * types and type variables, the name of the underlying type. All of these are hashed as
+     * strings, independently of the order of the element values, so unlike the hashcodes of the
+     * compiler's types and names, the hashcode is the same in every run, and sets of types are
+     * iterated in the same order.
+     *
      * @param type the type
      */
     private Integer generateHashcode(AnnotatedTypeMirror type) {
@@ -49,7 +65,34 @@ public class HashcodeAtmVisitor extends AnnotatedTypeScanner<Integer, Void> {
             return null;
         }
 
-        return type.getAnnotations().toString().hashCode() * 17
-                + type.getUnderlyingType().toString().hashCode() * 13;
+        int annotationsHashcode = 0;
+        for (AnnotationMirror anno : type.getAnnotations()) {
+            // Summed, so that the hashcode does not depend on the order of the element values.
+            int valuesHashcode = 0;
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry :
+                    AnnotationUtils.getElementValuesWithDefaults(anno).entrySet()) {
+                valuesHashcode +=
+                        (entry.getKey().getSimpleName().toString() + '=' + entry.getValue())
+                                .hashCode();
+            }
+            annotationsHashcode +=
+                    AnnotationUtils.annotationName(anno).hashCode() + 31 * valuesHashcode;
+        }
+        TypeMirror underlying = type.getUnderlyingType();
+        int underlyingHashcode = underlying.getKind().ordinal();
+        switch (underlying.getKind()) {
+            case DECLARED:
+                String className =
+                        ((DeclaredType) underlying).asElement().getSimpleName().toString();
+                underlyingHashcode += 31 * className.hashCode();
+                break;
+            case TYPEVAR:
+                String varName = ((TypeVariable) underlying).asElement().getSimpleName().toString();
+                underlyingHashcode += 31 * varName.hashCode();
+                break;
+            default:
+                break;
+        }
+        return annotationsHashcode * 17 + underlyingHashcode * 13;
     }
 }
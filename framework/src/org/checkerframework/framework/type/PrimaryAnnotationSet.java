@@ -0,0 +1,245 @@
+package org.checkerframework.framework.type;
+
+/*>>>
+import org.checkerframework.checker.nullness.qual.Nullable;
+*/
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import javax.lang.model.element.AnnotationMirror;
+import org.checkerframework.javacutil.AnnotationUtils;
+
+/**
+ * The set of primary annotations of an {@link AnnotatedTypeMirror}.
+ *
+ * <p>A type has at most one annotation per qualifier hierarchy, so the annotations are kept in an
+ * array with one slot per hierarchy, indexed by {@link QualifierHierarchy#getHierarchyIndex}.
+ * Annotations without a hierarchy index, such as {@code PolyAll}, and annotations whose slot is
+ * already taken go into a separate overflow list.
+ *
+ * <p>Otherwise the set behaves like the set returned by {@link
+ * AnnotationUtils#createAnnotationSet()}: two annotations are the same element if {@link
+ * AnnotationUtils#annotationOrdering()} considers them equal, and the iteration order follows that
+ * ordering.
+ */
+class PrimaryAnnotationSet extends AbstractSet<AnnotationMirror> {
+
+    private static final AnnotationMirror[] NO_ANNOTATIONS = new AnnotationMirror[0];
+
+    /** The factory whose qualifier hierarchy assigns the slots. */
+    private final AnnotatedTypeFactory atypeFactory;
+
+    /** The annotations, indexed by hierarchy. Allocated when the first slot is used. */
+    private AnnotationMirror /*@Nullable*/ [] slots = null;
+
+    /** The annotations that are not in a slot, or null if there are none. */
+    private /*@Nullable*/ List<AnnotationMirror> overflow = null;
+
+    /** The number of annotations in this set. */
+    private int size = 0;
+
+    /** The annotations in iteration order, or null if they are not cached. */
+    private AnnotationMirror /*@Nullable*/ [] sorted = NO_ANNOTATIONS;
+
+    PrimaryAnnotationSet(AnnotatedTypeFactory atypeFactory) {
+        this.atypeFactory = atypeFactory;
+    }
+
+    /** Returns the hierarchy index of {@code anno}, or -1 if it cannot be put into a slot. */
+    private int indexOf(AnnotationMirror anno) {
+        QualifierHierarchy qualHierarchy = atypeFactory.getQualifierHierarchy();
+        if (qualHierarchy == null) {
+            // The factory is still being initialized.
+            return -1;
+        }
+        int index = qualHierarchy.getHierarchyIndex(anno);
+        if (index >= 0 && slots == null) {
+            slots = new AnnotationMirror[qualHierarchy.getWidth()];
+        }
+        return index;
+    }
+
+    /**
+     * Returns true if all annotations of this set are in slots. Then the annotation of hierarchy
+     * {@code i}, if any, is {@code getInSlot(i)}.
+     */
+    boolean allInSlots() {
+        return overflow == null;
+    }
+
+    /**
+     * Returns the annotation in the slot of a hierarchy, or null.
+     *
+     * @param index a hierarchy index, as returned by {@link QualifierHierarchy#getHierarchyIndex}
+     * @return the annotation in the slot of the hierarchy, or null if the slot is empty
+     */
+    /*@Nullable*/ AnnotationMirror getInSlot(int index) {
+        return slots == null ? null : slots[index];
+    }
+
+    /** Returns the element of this set that is the same as {@code anno}, or null. */
+    private /*@Nullable*/ AnnotationMirror find(AnnotationMirror anno, int index) {
+        if (index >= 0 && isSame(slots[index], anno)) {
+            return slots[index];
+        }
+        if (overflow != null) {
+            for (AnnotationMirror other : overflow) {
+                if (isSame(other, anno)) {
+                    return other;
+                }
+            }
+        }
+        return null;
+    }
+
+    /** Are the two annotations the same according to {@link AnnotationUtils#annotationOrdering}? */
+    private static boolean isSame(/*@Nullable*/ AnnotationMirror a1, AnnotationMirror a2) {
+        if (a1 == a2) {
+            return true;
+        }
+        if (a1 == null
+                || AnnotationUtils.annotationName(a1) != AnnotationUtils.annotationName(a2)) {
+            return false;
+        }
+        if (a1.getElementValues().isEmpty() && a2.getElementValues().isEmpty()) {
+            return true;
+        }
+        return AnnotationUtils.annotationOrdering().compare(a1, a2) == 0;
+    }
+
+    @Override
+    public boolean add(AnnotationMirror anno) {
+        int index = indexOf(anno);
+        if (find(anno, index) != null) {
+            return false;
+        }
+        if (index >= 0 && slots[index] == null) {
+            slots[index] = anno;
+        } else {
+            if (overflow == null) {
+                overflow = new ArrayList<>(1);
+            }
+            overflow.add(anno);
+        }
+        size++;
+        sorted = null;
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (!(o instanceof AnnotationMirror) || size == 0) {
+            return false;
+        }
+        AnnotationMirror anno = (AnnotationMirror) o;
+        int index = indexOf(anno);
+        AnnotationMirror element = find(anno, index);
+        if (element == null) {
+            return false;
+        }
+        if (index >= 0 && slots[index] == element) {
+            slots[index] = null;
+        } else {
+            overflow.remove(element);
+            if (overflow.isEmpty()) {
+                overflow = null;
+            }
+        }
+        size--;
+        sorted = null;
+        return true;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof AnnotationMirror) || size == 0) {
+            return false;
+        }
+        AnnotationMirror anno = (AnnotationMirror) o;
+        return find(anno, indexOf(anno)) != null;
+    }
+
+    @Override
+    public void clear() {
+        if (slots != null) {
+            Arrays.fill(slots, null);
+        }
+        overflow = null;
+        size = 0;
+        sorted = NO_ANNOTATIONS;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the annotations of this set in iteration order. The result must not be modified.
+     *
+     * <p>The result is cached only if there are several annotations, to keep the common types with
+     * a single annotation small.
+     */
+    private AnnotationMirror[] sorted() {
+        if (sorted != null) {
+            return sorted;
+        }
+        AnnotationMirror[] result = new AnnotationMirror[size];
+        int i = 0;
+        if (slots != null) {
+            for (AnnotationMirror anno : slots) {
+                if (anno != null) {
+                    result[i++] = anno;
+                }
+            }
+        }
+        if (overflow != null) {
+            for (AnnotationMirror anno : overflow) {
+                result[i++] = anno;
+            }
+        }
+        if (size > 1) {
+            Arrays.sort(result, AnnotationUtils.annotationOrdering());
+            sorted = result;
+        }
+        return result;
+    }
+
+    @Override
+    public Iterator<AnnotationMirror> iterator() {
+        final AnnotationMirror[] elements = sorted();
+        return new Iterator<AnnotationMirror>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < elements.length;
+            }
+
+            @Override
+            public AnnotationMirror next() {
+                if (next >= elements.length) {
+                    throw new NoSuchElementException();
+                }
+                return elements[next++];
+            }
+
+            @Override
+            public void remove() {
+                if (next == 0) {
+                    throw new IllegalStateException();
+                }
+                PrimaryAnnotationSet.this.remove(elements[next - 1]);
+            }
+        };
+    }
+}
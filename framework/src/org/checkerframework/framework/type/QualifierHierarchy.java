@@ -5,6 +5,7 @@ import org.checkerframework.checker.interning.qual.*;
 */
 
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 import javax.lang.model.element.AnnotationMirror;
@@ -48,6 +49,53 @@ public abstract class QualifierHierarchy {
     /** @return the top (ultimate super) type qualifiers in the type system */
     public abstract Set<? extends AnnotationMirror> getTopAnnotations();
 
+    /**
+     * Maps the name of each qualifier seen so far to the index of its hierarchy, or to -1 if it is
+     * not in exactly one hierarchy.
+     */
+    private final Map<String, Integer> hierarchyIndexes = new HashMap<>();
+
+    /**
+     * Returns the index of the hierarchy that contains {@code qualifier}, i.e. the position of its
+     * top qualifier in {@link #getTopAnnotations()}. The index only depends on the name of the
+     * qualifier, not on its values.
+     *
+     * <p>Qualifiers that are not in exactly one hierarchy, such as {@link PolyAll}, have no index.
+     *
+     * @param qualifier a type qualifier
+     * @return the index of the hierarchy of {@code qualifier} in {@code [0, getWidth())}, or -1 if
+     *     it has none
+     */
+    public int getHierarchyIndex(AnnotationMirror qualifier) {
+        String name = AnnotationUtils.annotationName(qualifier);
+        Integer index = hierarchyIndexes.get(name);
+        if (index == null) {
+            index = computeHierarchyIndex(qualifier);
+            hierarchyIndexes.put(name, index);
+        }
+        return index;
+    }
+
+    private int computeHierarchyIndex(AnnotationMirror qualifier) {
+        if (AnnotationUtils.areSameByClass(qualifier, PolyAll.class)
+                || !AnnotationUtils.containsSameIgnoringValues(getTypeQualifiers(), qualifier)) {
+            return -1;
+        }
+        int index = -1;
+        int i = 0;
+        for (AnnotationMirror top : getTopAnnotations()) {
+            if (isSubtype(qualifier, top)) {
+                if (index != -1) {
+                    // The qualifier is in several hierarchies.
+                    return -1;
+                }
+                index = i;
+            }
+            i++;
+        }
+        return index;
+    }
+
     /**
      * Return the top qualifier for the given qualifier, that is, the qualifier that is a supertype
      * of start but no further supertypes exist.
@@ -1,10 +1,16 @@
 package org.checkerframework.framework.type.treeannotator;
 
+/*>>>
+import org.checkerframework.checker.nullness.qual.Nullable;
+*/
+
 import com.sun.source.tree.LiteralTree;
 import com.sun.source.tree.Tree;
 import com.sun.source.tree.Tree.Kind;
 import java.lang.annotation.Annotation;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.IdentityHashMap;
@@ -12,12 +18,14 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 import javax.lang.model.element.AnnotationMirror;
 import org.checkerframework.framework.qual.ImplicitFor;
 import org.checkerframework.framework.qual.LiteralKind;
 import org.checkerframework.framework.type.AnnotatedTypeFactory;
 import org.checkerframework.framework.type.AnnotatedTypeMirror;
 import org.checkerframework.framework.type.QualifierHierarchy;
+import org.checkerframework.framework.util.LiteralAnalysisCache;
 import org.checkerframework.javacutil.AnnotationUtils;
 import org.checkerframework.javacutil.ErrorReporter;
 
@@ -56,6 +64,24 @@ public class ImplicitsTreeAnnotator extends TreeAnnotator {
     private final Map<Class<?>, Set<AnnotationMirror>> treeClasses;
     private final Map<Pattern, Set<AnnotationMirror>> stringPatterns;
 
+    /**
+     * The qualifiers of string literals, by string value. Created when the first string literal is
+     * visited, and discarded when a string pattern is added.
+     */
+    private LiteralAnalysisCache<Set<? extends AnnotationMirror>> stringLiteralQualifiers;
+
+    /** The keys of {@link #stringPatterns}; a match set contains indexes into this array. */
+    private Pattern[] patterns;
+
+    /**
+     * The alternation of all {@link #patterns}, which matches a string iff one of them does, or
+     * null if the patterns cannot be combined.
+     */
+    private /*@Nullable*/ Pattern anyPattern;
+
+    /** Maps the set of indexes of the patterns that match a string to the string's qualifiers. */
+    private final Map<BitSet, Set<? extends AnnotationMirror>> matchSetQualifiers;
+
     protected final QualifierHierarchy qualHierarchy;
 
     /**
@@ -87,6 +113,7 @@ public class ImplicitsTreeAnnotator extends TreeAnnotator {
         this.treeKinds = new EnumMap<Kind, Set<AnnotationMirror>>(Kind.class);
         this.treeClasses = new HashMap<Class<?>, Set<AnnotationMirror>>();
         this.stringPatterns = new IdentityHashMap<Pattern, Set<AnnotationMirror>>();
+        this.matchSetQualifiers = new HashMap<>();
 
         this.qualHierarchy = atypeFactory.getQualifierHierarchy();
 
@@ -196,6 +223,8 @@ public class ImplicitsTreeAnnotator extends TreeAnnotator {
                             + " with "
                             + theQual);
         }
+        stringLiteralQualifiers = null;
+        matchSetQualifiers.clear();
     }
 
     @Override
@@ -231,43 +260,118 @@ public class ImplicitsTreeAnnotator extends TreeAnnotator {
     @Override
     public Void visitLiteral(LiteralTree tree, AnnotatedTypeMirror type) {
         if (!stringPatterns.isEmpty() && tree.getKind() == Kind.STRING_LITERAL) {
-            List<Set<? extends AnnotationMirror>> matches = new ArrayList<>();
-            List<Set<? extends AnnotationMirror>> nonMatches = new ArrayList<>();
+            if (stringLiteralQualifiers == null) {
+                initStringPatterns();
+            }
+            type.addAnnotations(stringLiteralQualifiers.get((String) tree.getValue()));
+        }
+        return super.visitLiteral(tree, type);
+    }
 
-            String string = (String) tree.getValue();
-            for (Pattern pattern : stringPatterns.keySet()) {
-                Set<AnnotationMirror> sam = stringPatterns.get(pattern);
-                if (pattern.matcher(string).matches()) {
-                    matches.add(sam);
-                } else {
-                    nonMatches.add(sam);
-                }
+    /**
+     * Prepares matching string literals against {@link #stringPatterns}. String literals repeat a
+     * lot, so their qualifiers are cached by value.
+     */
+    private void initStringPatterns() {
+        patterns = stringPatterns.keySet().toArray(new Pattern[stringPatterns.size()]);
+        StringBuilder alternation = new StringBuilder();
+        boolean combinable = true;
+        for (Pattern pattern : patterns) {
+            // Group numbers change in the alternation, so numbered back references would break.
+            if (pattern.pattern().matches("(?s).*\\\\[1-9].*")) {
+                combinable = false;
             }
-            Set<? extends AnnotationMirror> res = null;
-            if (!matches.isEmpty()) {
-                res = matches.get(0);
-                for (Set<? extends AnnotationMirror> sam : matches) {
-                    res = qualHierarchy.greatestLowerBounds(res, sam);
-                }
-                // Verify that res is not a subtype of any type in nonMatches
-                for (Set<? extends AnnotationMirror> sam : nonMatches) {
-                    if (qualHierarchy.isSubtype(res, sam)) {
-                        ErrorReporter.errorAbort(
-                                "Bug in @ImplicitFor(stringpatterns=...) in type hierarchy definition: inferred type for \""
-                                        + string
-                                        + "\" is "
-                                        + res
-                                        + " which is a subtype of "
-                                        + sam
-                                        + " but its pattern does not match the string.  matches = "
-                                        + matches
-                                        + "; nonMatches = "
-                                        + nonMatches);
-                    }
-                }
-                type.addAnnotations(res);
+            if (alternation.length() > 0) {
+                alternation.append('|');
             }
+            alternation.append("(?:").append(pattern.pattern()).append(')');
         }
-        return super.visitLiteral(tree, type);
+        anyPattern = null;
+        if (combinable) {
+            try {
+                anyPattern = Pattern.compile(alternation.toString());
+            } catch (PatternSyntaxException e) {
+                // The patterns cannot be combined, e.g. because they declare the same named
+                // group, so each is matched separately.
+            }
+        }
+        stringLiteralQualifiers =
+                new LiteralAnalysisCache<>(
+                        new LiteralAnalysisCache.LiteralAnalysis<
+                                Set<? extends AnnotationMirror>>() {
+                            @Override
+                            public Set<? extends AnnotationMirror> analyze(String string) {
+                                return stringQualifiers(string);
+                            }
+                        });
+    }
+
+    /**
+     * Returns the qualifiers of a string literal: the greatest lower bound of the qualifiers of all
+     * patterns that match it, or the empty set if none matches.
+     */
+    private Set<? extends AnnotationMirror> stringQualifiers(String string) {
+        // Most strings match no pattern, which a single pass over the alternation shows.
+        if (anyPattern != null && !anyPattern.matcher(string).matches()) {
+            return Collections.emptySet();
+        }
+        BitSet matchSet = new BitSet(patterns.length);
+        for (int i = 0; i < patterns.length; i++) {
+            if (patterns[i].matcher(string).matches()) {
+                matchSet.set(i);
+            }
+        }
+        if (matchSet.isEmpty()) {
+            return Collections.emptySet();
+        }
+        Set<? extends AnnotationMirror> res = matchSetQualifiers.get(matchSet);
+        if (res == null) {
+            res = matchSetQualifiers(matchSet, string);
+            matchSetQualifiers.put(matchSet, res);
+        }
+        return res;
+    }
+
+    /**
+     * Computes the qualifiers of the strings that match exactly the patterns in {@code matchSet}.
+     * Checks, once per match set, that the result is not a subtype of the qualifier of a pattern
+     * that does not match.
+     *
+     * @param matchSet the indexes of the matching patterns
+     * @param string a string that matches exactly the patterns in {@code matchSet}, for error
+     *     messages
+     */
+    private Set<? extends AnnotationMirror> matchSetQualifiers(BitSet matchSet, String string) {
+        List<Set<? extends AnnotationMirror>> matches = new ArrayList<>();
+        List<Set<? extends AnnotationMirror>> nonMatches = new ArrayList<>();
+        for (int i = 0; i < patterns.length; i++) {
+            Set<AnnotationMirror> sam = stringPatterns.get(patterns[i]);
+            if (matchSet.get(i)) {
+                matches.add(sam);
+            } else {
+                nonMatches.add(sam);
+            }
+        }
+        Set<? extends AnnotationMirror> res = matches.get(0);
+        for (Set<? extends AnnotationMirror> sam : matches) {
+            res = qualHierarchy.greatestLowerBounds(res, sam);
+        }
+        // Verify that res is not a subtype of any type in nonMatches
+        for (Set<? extends AnnotationMirror> sam : nonMatches) {
+            if (qualHierarchy.isSubtype(res, sam)) {
+                ErrorReporter.errorAbort(
+                        "Bug in @ImplicitFor(stringpatterns=...) in type hierarchy definition: inferred type for \""
+                                + string
+                                + "\" is "
+                                + res
+                                + " which is a subtype of "
+                                + sam
+                                + " but its pattern does not match the string.  matches = "
+                                + matches
+                                + "; nonMatches = "
+                                + nonMatches);
+            }
+        }
+        return res;
     }
 }
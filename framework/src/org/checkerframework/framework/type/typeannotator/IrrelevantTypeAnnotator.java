@@ -33,6 +33,12 @@ public class IrrelevantTypeAnnotator extends TypeAnnotator {
      */
     private Set<TypeMirror> allFoundRelevantTypes;
 
+    /**
+     * Cache of types found that are not relevant, but that are supertypes of relevant types. Used
+     * by {@link #mayHoldRelevantValues(TypeMirror)}.
+     */
+    private Set<TypeMirror> allFoundRelevantSupertypes;
+
     private boolean arraysAreRelevant;
     private Set<? extends AnnotationMirror> annotations;
 
@@ -67,6 +73,8 @@ public class IrrelevantTypeAnnotator extends TypeAnnotator {
         }
         this.allFoundRelevantTypes =
                 Collections.newSetFromMap(CollectionUtils.<TypeMirror, Boolean>createLRUCache(300));
+        this.allFoundRelevantSupertypes =
+                Collections.newSetFromMap(CollectionUtils.<TypeMirror, Boolean>createLRUCache(300));
     }
 
     @Override
@@ -89,35 +97,79 @@ public class IrrelevantTypeAnnotator extends TypeAnnotator {
                 // go on
         }
 
+        if (!isRelevant(type.getUnderlyingType())) {
+            type.addMissingAnnotations(annotations);
+        }
+        return super.scan(type, aVoid);
+    }
+
+    /**
+     * Returns true if {@code typeMirror} is relevant, i.e. it is a primitive type whose boxed type
+     * is relevant, a declared type that is a subtype of one of the relevant classes, or an array
+     * type if arrays are relevant.
+     *
+     * @param typeMirror a primitive, declared, or array type
+     * @return true if {@code typeMirror} is relevant
+     */
+    public boolean isRelevant(TypeMirror typeMirror) {
         Types types = typeFactory.getContext().getTypeUtils();
-        TypeMirror typeMirror = type.getUnderlyingType();
 
         if (TypesUtils.isPrimitive(typeMirror)) {
             typeMirror = types.boxedClass((PrimitiveType) typeMirror).asType();
         }
 
-        boolean shouldAnnotate = true;
         if (allFoundRelevantTypes.contains(typeMirror)) {
-            shouldAnnotate = false;
+            return true;
         } else if (typeMirror.getKind() == TypeKind.DECLARED) {
             for (TypeMirror supportedType : relevantTypes) {
                 if (types.isSubtype(typeMirror, supportedType)) {
-                    shouldAnnotate = false;
                     allFoundRelevantTypes.add(typeMirror);
-                    break;
+                    return true;
                 }
             }
         } else if (typeMirror.getKind() == TypeKind.ARRAY) {
-            shouldAnnotate = arraysAreRelevant;
             if (arraysAreRelevant) {
                 allFoundRelevantTypes.add(typeMirror);
             }
+            return arraysAreRelevant;
         }
+        return false;
+    }
 
-        if (shouldAnnotate) {
-            type.addMissingAnnotations(annotations);
+    /**
+     * Returns true if a value of type {@code typeMirror} may be a value of a relevant type, i.e.
+     * {@code typeMirror} is relevant or is a supertype of a relevant type, such as Object.
+     *
+     * @param typeMirror a primitive, declared, or array type
+     * @return true if {@code typeMirror} is relevant or a supertype of a relevant type
+     */
+    public boolean mayHoldRelevantValues(TypeMirror typeMirror) {
+        if (isRelevant(typeMirror)) {
+            return true;
         }
-        return super.scan(type, aVoid);
+        if (typeMirror.getKind() != TypeKind.DECLARED) {
+            return false;
+        }
+        if (allFoundRelevantSupertypes.contains(typeMirror)) {
+            return true;
+        }
+        Types types = typeFactory.getContext().getTypeUtils();
+        TypeMirror erased = types.erasure(typeMirror);
+        for (TypeMirror supportedType : relevantTypes) {
+            if (types.isSubtype(types.erasure(supportedType), erased)) {
+                allFoundRelevantSupertypes.add(typeMirror);
+                return true;
+            }
+        }
+        if (arraysAreRelevant
+                && types.isSubtype(
+                        TypesUtils.typeFromClass(
+                                types, typeFactory.getElementUtils(), Object[].class),
+                        erased)) {
+            allFoundRelevantSupertypes.add(typeMirror);
+            return true;
+        }
+        return false;
     }
 
     @Override
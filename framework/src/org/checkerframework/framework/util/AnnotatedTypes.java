@@ -766,7 +766,7 @@ public class AnnotatedTypes {
 
     // TODO: can't we do better than comparing the strings?
     public static boolean areSame(AnnotatedTypeMirror t1, AnnotatedTypeMirror t2) {
-        return t1.toString().equals(t2.toString());
+        return t1 == t2 || t1.toString().equals(t2.toString());
     }
 
     /**
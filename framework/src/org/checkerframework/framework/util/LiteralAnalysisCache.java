@@ -0,0 +1,97 @@
+package org.checkerframework.framework.util;
+
+import java.util.Collections;
+import java.util.Map;
+import org.checkerframework.javacutil.CollectionUtils;
+
+/**
+ * A bounded memo of the results of analyzing the contents of string literals, such as the group
+ * count of a regular expression or the conversion categories of a format string.
+ *
+ * <p>Constants like log formats occur thousands of times in a code base. A checker that keeps its
+ * LiteralAnalysisCache in a static field analyzes each distinct string only once per JVM, no matter
+ * how many compilation units, checkers, or subcheckers see it. The results are keyed by string
+ * content, so the result for a concatenation is found again whenever the same concatenated string
+ * is seen, however it was built.
+ *
+ * <p>An analysis may fail by throwing a {@link RuntimeException}. The failure is cached as well,
+ * and the same exception object is rethrown on every later lookup of the string.
+ *
+ * <p>Cached results are shared by all clients and must not be modified.
+ *
+ * @param <R> the type of the analysis result
+ */
+public class LiteralAnalysisCache<R> {
+
+    /** An analysis of the contents of a string literal. */
+    public interface LiteralAnalysis<R> {
+        /**
+         * Analyzes the given string.
+         *
+         * @param literal the contents of a string literal
+         * @return the result of the analysis
+         * @throws RuntimeException if the string is not valid for this analysis
+         */
+        R analyze(String literal);
+    }
+
+    /** The default maximum number of strings whose results are kept. */
+    public static final int DEFAULT_SIZE = 4096;
+
+    /** The analysis whose results are cached. */
+    private final LiteralAnalysis<R> analysis;
+
+    /** Maps a string to its result. Access is synchronized, as instances are shared by threads. */
+    private final Map<String, Result<R>> results;
+
+    /** Creates a cache for {@code analysis} with the {@link #DEFAULT_SIZE}. */
+    public LiteralAnalysisCache(LiteralAnalysis<R> analysis) {
+        this(analysis, DEFAULT_SIZE);
+    }
+
+    /**
+     * Creates a cache for {@code analysis}.
+     *
+     * @param analysis the analysis whose results are cached
+     * @param size the maximum number of strings whose results are kept
+     */
+    public LiteralAnalysisCache(LiteralAnalysis<R> analysis, int size) {
+        this.analysis = analysis;
+        this.results =
+                Collections.synchronizedMap(
+                        CollectionUtils.<String, Result<R>>createLRUCache(size));
+    }
+
+    /**
+     * Returns the result of the analysis for {@code literal}, computing it if it is not cached.
+     *
+     * @throws RuntimeException the exception that the analysis threw for {@code literal}
+     */
+    public R get(String literal) {
+        Result<R> result = results.get(literal);
+        if (result == null) {
+            // Two threads may both analyze the same string; both compute the same result.
+            try {
+                result = new Result<R>(analysis.analyze(literal), null);
+            } catch (RuntimeException e) {
+                result = new Result<R>(null, e);
+            }
+            results.put(literal, result);
+        }
+        if (result.failure != null) {
+            throw result.failure;
+        }
+        return result.value;
+    }
+
+    /** The outcome of analyzing one string: either a value or a failure. */
+    private static class Result<R> {
+        private final R value;
+        private final RuntimeException failure;
+
+        Result(R value, RuntimeException failure) {
+            this.value = value;
+            this.failure = failure;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package org.checkerframework.framework.util;
+
+/*>>>
+import org.checkerframework.checker.nullness.qual.Nullable;
+*/
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import javax.lang.model.element.ExecutableElement;
+import org.checkerframework.dataflow.qual.Pure;
+import org.checkerframework.javacutil.ElementUtils;
+import org.checkerframework.javacutil.ErrorReporter;
+
+/**
+ * The purity of methods that are not annotated with {@link
+ * org.checkerframework.dataflow.qual.SideEffectFree}, {@link
+ * org.checkerframework.dataflow.qual.Deterministic}, or {@link Pure}, but whose purity was inferred
+ * by checking their bodies.
+ *
+ * <p>A checker and all of its subcheckers share one instance, so the body of a method is checked at
+ * most once per compilation. The summaries can be read from and written to a file, given by the
+ * puritySummaries option, so that the purity inferred while compiling a library is available when
+ * compiling its clients against the library's class files.
+ *
+ * <p>Each line of a summary file consists of the verbose name of a method, as returned by {@link
+ * ElementUtils#getVerboseName}, a tab, and the comma-separated purity kinds of the method. Lines
+ * starting with # are ignored.
+ */
+public class PuritySummaries {
+
+    /** The file that summaries are read from and written to, or null. */
+    private final /*@Nullable*/ File file;
+
+    /** Maps the verbose name of a method to its purity kinds. */
+    private final Map<String, EnumSet<Pure.Kind>> summaries = new TreeMap<>();
+
+    /**
+     * The verbose names of the methods whose purity was inferred in this compilation. Summaries of
+     * other methods were read from the file and may be stale for methods in the compiled sources.
+     */
+    private final Set<String> inferred = new HashSet<>();
+
+    /** Were summaries added since the file was read? */
+    private boolean changed = false;
+
+    /**
+     * Creates summaries, reading them from {@code file} if it exists.
+     *
+     * @param file the file that summaries are read from and written to, or null
+     */
+    public PuritySummaries(/*@Nullable*/ File file) {
+        this.file = file;
+        if (file != null && file.exists()) {
+            read(file);
+        }
+    }
+
+    /**
+     * Returns the purity kinds of {@code method}, or null if there is no summary for it.
+     *
+     * @param method a method
+     * @return the purity kinds of {@code method}, or null if it has no summary
+     */
+    public /*@Nullable*/ EnumSet<Pure.Kind> get(ExecutableElement method) {
+        return summaries.get(ElementUtils.getVerboseName(method));
+    }
+
+    /**
+     * Returns the purity kinds of {@code method} if they were inferred in this compilation, or null
+     * otherwise. Unlike {@link #get}, this ignores summaries read from the file.
+     *
+     * @param method a method
+     * @return the purity kinds inferred for {@code method} in this compilation, or null
+     */
+    public /*@Nullable*/ EnumSet<Pure.Kind> getInferred(ExecutableElement method) {
+        String name = ElementUtils.getVerboseName(method);
+        return inferred.contains(name) ? summaries.get(name) : null;
+    }
+
+    /**
+     * Records the purity kinds of {@code method}, which were inferred in this compilation.
+     *
+     * @param method a method
+     * @param kinds the purity kinds of {@code method}
+     */
+    public void put(ExecutableElement method, EnumSet<Pure.Kind> kinds) {
+        String name = ElementUtils.getVerboseName(method);
+        inferred.add(name);
+        EnumSet<Pure.Kind> old = summaries.put(name, kinds);
+        if (!kinds.equals(old)) {
+            changed = true;
+        }
+    }
+
+    /** Writes the summaries to the file, if there is one and the summaries changed. */
+    public void write() {
+        if (file == null || !changed) {
+            return;
+        }
+        try (PrintWriter out =
+                new PrintWriter(
+                        new OutputStreamWriter(
+                                new FileOutputStream(file), StandardCharsets.UTF_8))) {
+            out.println("# Purity summaries written by the Checker Framework");
+            for (Map.Entry<String, EnumSet<Pure.Kind>> entry : summaries.entrySet()) {
+                StringBuilder line = new StringBuilder(entry.getKey());
+                line.append('\t');
+                String separator = "";
+                for (Pure.Kind kind : entry.getValue()) {
+                    line.append(separator).append(kind.name());
+                    separator = ",";
+                }
+                out.println(line);
+            }
+        } catch (IOException e) {
+            ErrorReporter.errorAbort("Could not write purity summaries to " + file, e);
+        }
+        changed = false;
+    }
+
+    /** Reads the summaries in {@code file}. */
+    private void read(File file) {
+        try (BufferedReader in =
+                new BufferedReader(
+                        new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                int tab = line.lastIndexOf('\t');
+                if (tab < 0) {
+                    ErrorReporter.errorAbort(
+                            "Malformed line in purity summaries " + file + ": " + line);
+                }
+                EnumSet<Pure.Kind> kinds = EnumSet.noneOf(Pure.Kind.class);
+                for (String kind : line.substring(tab + 1).split(",")) {
+                    if (!kind.isEmpty()) {
+                        kinds.add(Pure.Kind.valueOf(kind));
+                    }
+                }
+                summaries.put(line.substring(0, tab), kinds);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            ErrorReporter.errorAbort("Could not read purity summaries from " + file, e);
+        }
+    }
+}
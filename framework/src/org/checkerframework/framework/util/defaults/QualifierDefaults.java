@@ -1,6 +1,7 @@
 package org.checkerframework.framework.util.defaults;
 
 import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.CompilationUnitTree;
 import com.sun.source.tree.ExpressionTree;
 import com.sun.source.tree.IdentifierTree;
 import com.sun.source.tree.MemberSelectTree;
@@ -12,6 +13,7 @@ import com.sun.source.tree.VariableTree;
 import com.sun.source.util.TreePath;
 import com.sun.tools.javac.code.Type.WildcardType;
 import java.lang.annotation.Annotation;
+import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.IdentityHashMap;
 import java.util.List;
@@ -102,6 +104,26 @@ public class QualifierDefaults {
     /** A mapping of Element &rarr; Whether or not that element is AnnotatedFor this type system. */
     private final Map<Element, Boolean> elementAnnotatedFors = new IdentityHashMap<>();
 
+    /**
+     * The compilation unit currently being checked, or null. The caches below are only used when it
+     * is non-null, and are cleared when it changes, because whether an element is treated as
+     * unchecked bytecode depends on whether its declaration is available.
+     */
+    private /*@Nullable*/ CompilationUnitTree root = null;
+
+    /**
+     * A mapping of defaulting scope &rarr; the defaults to apply in that scope, in order: the
+     * inherited defaults of the scope, then the unchecked code defaults if they apply, then the
+     * checked code defaults. Also cleared when a default is added.
+     */
+    private final Map<Element, List<Default>> scopeDefaults = new IdentityHashMap<>();
+
+    /**
+     * A mapping of Tree &rarr; its defaulting scope, for trees whose scope is determined by
+     * climbing their tree path.
+     */
+    private final Map<Tree, Element> treeScopes = new IdentityHashMap<>();
+
     /** CLIMB locations whose standard default is top for a given type system. */
     public static final TypeUseLocation[] standardClimbDefaultsTop = {
         TypeUseLocation.LOCAL_VARIABLE,
@@ -188,6 +210,17 @@ public class QualifierDefaults {
         return sb.toString();
     }
 
+    /**
+     * Sets the compilation unit that is currently being checked.
+     *
+     * @param root the compilation unit, or null
+     */
+    public void setRoot(/*@Nullable*/ CompilationUnitTree root) {
+        this.root = root;
+        scopeDefaults.clear();
+        treeScopes.clear();
+    }
+
     /**
      * Check that a default with TypeUseLocation OTHERWISE or ALL is specified.
      *
@@ -266,6 +299,7 @@ public class QualifierDefaults {
             AnnotationMirror absoluteDefaultAnno, TypeUseLocation location) {
         checkDuplicates(checkedCodeDefaults, absoluteDefaultAnno, location);
         checkedCodeDefaults.add(new Default(absoluteDefaultAnno, location));
+        scopeDefaults.clear();
     }
 
     /** Sets the default annotation for unchecked elements. */
@@ -275,6 +309,7 @@ public class QualifierDefaults {
         checkIsValidUncheckedCodeLocation(uncheckedDefaultAnno, location);
 
         uncheckedCodeDefaults.add(new Default(uncheckedDefaultAnno, location));
+        scopeDefaults.clear();
     }
 
     /** Sets the default annotation for unchecked elements, with specific locations. */
@@ -303,6 +338,7 @@ public class QualifierDefaults {
         }
         prevset.add(new Default(elementDefaultAnno, location));
         elementDefaults.put(elem, prevset);
+        scopeDefaults.clear();
     }
 
     private void checkIsValidUncheckedCodeLocation(
@@ -381,6 +417,10 @@ public class QualifierDefaults {
      * @return the nearest enclosing element for a tree
      */
     private Element nearestEnclosingExceptLocal(Tree tree) {
+        if (treeScopes.containsKey(tree)) {
+            return treeScopes.get(tree);
+        }
+
         TreePath path = atypeFactory.getPath(tree);
         if (path == null) {
             Element method = atypeFactory.getEnclosingMethod(tree);
@@ -391,6 +431,15 @@ public class QualifierDefaults {
             }
         }
 
+        Element scope = nearestEnclosingExceptLocal(path);
+        if (root != null) {
+            treeScopes.put(tree, scope);
+        }
+        return scope;
+    }
+
+    /** Determines the nearest enclosing element for the leaf of the given path. */
+    private Element nearestEnclosingExceptLocal(TreePath path) {
         Tree prev = null;
 
         for (Tree t : path) {
@@ -695,23 +744,39 @@ public class QualifierDefaults {
      */
     private void applyDefaultsElement(
             final Element annotationScope, final AnnotatedTypeMirror type) {
-        DefaultSet defaults = defaultsAt(annotationScope);
+        List<Default> defaults = null;
+        if (root != null) {
+            defaults = scopeDefaults.get(annotationScope);
+        }
+        if (defaults == null) {
+            defaults = computeScopeDefaults(annotationScope);
+            if (root != null) {
+                scopeDefaults.put(annotationScope, defaults);
+            }
+        }
+
         DefaultApplierElement applier =
                 new DefaultApplierElement(atypeFactory, annotationScope, type, applyToTypeVar);
 
         for (Default def : defaults) {
             applier.applyDefault(def);
         }
+    }
+
+    /**
+     * Returns the defaults to apply in the given scope, in the order in which they are applied.
+     *
+     * @see #applyDefaultsElement(Element, AnnotatedTypeMirror)
+     */
+    private List<Default> computeScopeDefaults(final Element annotationScope) {
+        List<Default> defaults = new ArrayList<>(defaultsAt(annotationScope));
 
         if (applyUncheckedCodeDefaults(annotationScope)) {
-            for (Default def : uncheckedCodeDefaults) {
-                applier.applyDefault(def);
-            }
+            defaults.addAll(uncheckedCodeDefaults);
         }
 
-        for (Default def : checkedCodeDefaults) {
-            applier.applyDefault(def);
-        }
+        defaults.addAll(checkedCodeDefaults);
+        return defaults;
     }
 
     public static class DefaultApplierElement {
@@ -0,0 +1,154 @@
+package org.checkerframework.framework.util.element;
+
+/*>>>
+import org.checkerframework.checker.nullness.qual.Nullable;
+*/
+
+import com.sun.tools.javac.code.Symbol;
+import com.sun.tools.javac.util.Context;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.IntersectionType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.UnionType;
+import javax.lang.model.type.WildcardType;
+import org.checkerframework.javacutil.ElementUtils;
+
+/**
+ * The annotations stored in the class files of library methods and fields, shared by all type
+ * factories of a compilation.
+ *
+ * <p>Every checker of a compilation, and every subchecker of an aggregate checker, has its own
+ * {@link org.checkerframework.framework.type.AnnotatedTypeFactory}, and each factory decodes the
+ * annotations of the library elements it uses with {@link
+ * org.checkerframework.framework.type.ElementAnnotationApplier}. The annotations of a library
+ * element are the same for every factory, so this class collects them once per compilation. A
+ * factory then only has to check whether any of them belongs to its own type system: if none does,
+ * {@link org.checkerframework.framework.type.ElementAnnotationApplier} would not add any
+ * annotation, and the factory can skip it.
+ *
+ * <p>Only the elements that {@link org.checkerframework.framework.type.ElementAnnotationApplier}
+ * annotates from their own annotations alone are covered: methods and fields from class files whose
+ * types do not use type variables. The annotations of a type variable use come from the declaration
+ * of the type variable.
+ */
+public class LibraryElementAnnotations {
+
+    /** The key of the instance of a compilation in its javac context. */
+    private static final Context.Key<LibraryElementAnnotations> key =
+            new Context.Key<LibraryElementAnnotations>();
+
+    /**
+     * Returns the instance for the compilation of {@code context}, creating it if necessary.
+     *
+     * @param context the javac context of the compilation
+     * @return the instance shared by all type factories of the compilation
+     */
+    public static LibraryElementAnnotations instance(Context context) {
+        LibraryElementAnnotations instance = context.get(key);
+        if (instance == null) {
+            instance = new LibraryElementAnnotations();
+            context.put(key, instance);
+        }
+        return instance;
+    }
+
+    /**
+     * Maps a library element to its annotations, or to null if the element is not covered. The
+     * lists are never modified after they are put into the map.
+     */
+    private final Map<Element, /*@Nullable*/ List<AnnotationMirror>> annotations = new HashMap<>();
+
+    private LibraryElementAnnotations() {}
+
+    /**
+     * Returns all type and declaration annotations that {@link
+     * org.checkerframework.framework.type.ElementAnnotationApplier} could apply to the type of
+     * {@code elt}, or null if {@code elt} is not a library method or field whose type is free of
+     * type variables. The result must not be modified.
+     *
+     * @param elt an element
+     * @return the annotations stored in the class file for {@code elt}, or null
+     */
+    public /*@Nullable*/ List<AnnotationMirror> getAnnotations(Element elt) {
+        if (annotations.containsKey(elt)) {
+            return annotations.get(elt);
+        }
+        List<AnnotationMirror> result = collect(elt);
+        annotations.put(elt, result);
+        return result;
+    }
+
+    private static /*@Nullable*/ List<AnnotationMirror> collect(Element elt) {
+        if (!(elt instanceof ExecutableElement || elt.getKind().isField())
+                || !ElementUtils.isElementFromByteCode(elt)
+                || usesTypeVariables(elt.asType())) {
+            return null;
+        }
+        List<AnnotationMirror> result = new ArrayList<>();
+        result.addAll(((Symbol) elt).getRawTypeAttributes());
+        result.addAll(elt.getAnnotationMirrors());
+        if (elt instanceof ExecutableElement) {
+            for (VariableElement param : ((ExecutableElement) elt).getParameters()) {
+                result.addAll(((Symbol) param).getRawTypeAttributes());
+                result.addAll(param.getAnnotationMirrors());
+            }
+        }
+        return result.isEmpty()
+                ? Collections.<AnnotationMirror>emptyList()
+                : Collections.unmodifiableList(result);
+    }
+
+    /** Does {@code type} use a type variable, or is it a generic method type? */
+    private static boolean usesTypeVariables(/*@Nullable*/ TypeMirror type) {
+        if (type == null) {
+            return false;
+        }
+        switch (type.getKind()) {
+            case TYPEVAR:
+                return true;
+            case ARRAY:
+                return usesTypeVariables(((ArrayType) type).getComponentType());
+            case DECLARED:
+                DeclaredType declared = (DeclaredType) type;
+                return usesTypeVariables(declared.getEnclosingType())
+                        || usesTypeVariables(declared.getTypeArguments());
+            case WILDCARD:
+                WildcardType wildcard = (WildcardType) type;
+                return usesTypeVariables(wildcard.getExtendsBound())
+                        || usesTypeVariables(wildcard.getSuperBound());
+            case INTERSECTION:
+                return usesTypeVariables(((IntersectionType) type).getBounds());
+            case UNION:
+                return usesTypeVariables(((UnionType) type).getAlternatives());
+            case EXECUTABLE:
+                ExecutableType method = (ExecutableType) type;
+                return !method.getTypeVariables().isEmpty()
+                        || usesTypeVariables(method.getReturnType())
+                        || usesTypeVariables(method.getReceiverType())
+                        || usesTypeVariables(method.getParameterTypes())
+                        || usesTypeVariables(method.getThrownTypes());
+            default:
+                return false;
+        }
+    }
+
+    private static boolean usesTypeVariables(List<? extends TypeMirror> types) {
+        for (TypeMirror type : types) {
+            if (usesTypeVariables(type)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,45 @@
+import org.checkerframework.dataflow.qual.Deterministic;
+import org.checkerframework.dataflow.qual.Pure;
+
+// ++ and -- assign to their operand
+class PurityIncrements {
+
+    int count;
+    int[] counts;
+
+    @Pure
+    int locals(int i) {
+        int j = i;
+        j++;
+        --j;
+        for (int k = 0; k < 10; ++k) {
+            j--;
+        }
+        return j;
+    }
+
+    @Pure
+    int fields() {
+        //:: error: (purity.not.deterministic.not.sideeffectfree.assign.field)
+        count++;
+        //:: error: (purity.not.deterministic.not.sideeffectfree.assign.field)
+        --this.count;
+        //:: error: (purity.not.deterministic.not.sideeffectfree.assign.field)
+        return (count)--;
+    }
+
+    @Pure
+    int arrays(int[] a) {
+        //:: error: (purity.not.deterministic.not.sideeffectfree.assign.array)
+        a[0]++;
+        //:: error: (purity.not.deterministic.not.sideeffectfree.assign.array)
+        return --counts[0];
+    }
+
+    @Deterministic
+    int deterministic() {
+        //:: error: (purity.not.deterministic.assign.field)
+        ++count;
+        return count;
+    }
+}
@@ -0,0 +1,28 @@
+import testlib.util.*;
+
+class FlowBudget {
+
+    // Analyzed within the budget, so local is refined to @Odd.
+    void small(@Odd String param) {
+        String local = param;
+        @Odd String r = local;
+    }
+
+    // The analysis exceeds the budget, so the declared type of local is used.
+    //:: warning: (flow.budget.exceeded)
+    void large(@Odd String param, int i) {
+        String local = param;
+        i = i + 1;
+        i = i + 2;
+        i = i + 3;
+        i = i + 4;
+        i = i + 5;
+        i = i + 6;
+        i = i + 7;
+        i = i + 8;
+        i = i + 9;
+        i = i + 10;
+        //:: error: (assignment.type.incompatible)
+        @Odd String r = local;
+    }
+}
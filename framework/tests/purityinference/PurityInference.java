@@ -0,0 +1,45 @@
+import testlib.util.*;
+
+class PurityInference {
+
+    String f;
+    int count;
+
+    private boolean isEmpty(String s) {
+        return s == null;
+    }
+
+    static String identity(String s) {
+        return s;
+    }
+
+    private void increment() {
+        count++;
+    }
+
+    // Not inferred: the method may be overridden.
+    boolean overridable(String s) {
+        return s == null;
+    }
+
+    void keepsRefinement(@Odd String param) {
+        f = param;
+        isEmpty(f);
+        identity(f);
+        @Odd String r = f;
+    }
+
+    void losesRefinement(@Odd String param) {
+        f = param;
+        increment();
+        //:: error: (assignment.type.incompatible)
+        @Odd String r = f;
+    }
+
+    void notInferred(@Odd String param) {
+        f = param;
+        overridable(f);
+        //:: error: (assignment.type.incompatible)
+        @Odd String r = f;
+    }
+}
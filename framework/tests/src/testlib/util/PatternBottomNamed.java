@@ -0,0 +1,12 @@
+package testlib.util;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Target;
+import org.checkerframework.framework.qual.ImplicitFor;
+import org.checkerframework.framework.qual.LiteralKind;
+import org.checkerframework.framework.qual.SubtypeOf;
+
+@SubtypeOf({PatternNamedA.class, PatternNamedB.class})
+@Target({ElementType.TYPE_USE, ElementType.TYPE_PARAMETER})
+@ImplicitFor(literals = {LiteralKind.NULL})
+public @interface PatternBottomNamed {}
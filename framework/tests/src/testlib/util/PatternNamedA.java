@@ -0,0 +1,11 @@
+package testlib.util;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Target;
+import org.checkerframework.framework.qual.ImplicitFor;
+import org.checkerframework.framework.qual.SubtypeOf;
+
+@SubtypeOf(PatternUnknown.class)
+@Target({ElementType.TYPE_USE, ElementType.TYPE_PARAMETER})
+@ImplicitFor(stringPatterns = "^(?<letter>A)$")
+public @interface PatternNamedA {}
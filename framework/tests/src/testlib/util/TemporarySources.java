@@ -0,0 +1,83 @@
+package testlib.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.checkerframework.framework.test.CompilationResult;
+import org.checkerframework.framework.test.TestConfiguration;
+import org.checkerframework.framework.test.TestConfigurationBuilder;
+import org.checkerframework.framework.test.TestUtilities;
+import org.checkerframework.framework.test.TypecheckExecutor;
+
+/**
+ * A temporary directory of source files, for tests that check the same sources several times with
+ * {@link FlowTestChecker} and edit them or the files that the checker writes in between.
+ */
+public class TemporarySources {
+
+    /** The temporary directory. */
+    private final File dir;
+
+    /**
+     * Creates a new, empty temporary directory.
+     *
+     * @param prefix the prefix of the name of the directory
+     */
+    public TemporarySources(String prefix) throws IOException {
+        dir = Files.createTempDirectory(prefix).toFile();
+    }
+
+    /** Returns the temporary directory. */
+    public File getDirectory() {
+        return dir;
+    }
+
+    /** Returns the file with the given name in the temporary directory. */
+    public File getFile(String name) {
+        return new File(dir, name);
+    }
+
+    /** Deletes the temporary directory and all files in it. */
+    public void delete() {
+        for (File file : dir.listFiles()) {
+            file.delete();
+        }
+        dir.delete();
+    }
+
+    /**
+     * Checks {@code sources} with {@link FlowTestChecker} and the -Anomsgtext option.
+     *
+     * @param sources the source files to check
+     * @param options further options for the checker
+     * @return the result of the compilation
+     */
+    public CompilationResult check(List<File> sources, String... options) {
+        List<String> allOptions = new ArrayList<>();
+        allOptions.add("-Anomsgtext");
+        allOptions.addAll(Arrays.asList(options));
+        TestConfiguration config =
+                TestConfigurationBuilder.buildDefaultConfiguration(
+                        dir.getPath(),
+                        sources,
+                        Collections.singleton(FlowTestChecker.class.getName()),
+                        allOptions,
+                        TestUtilities.getShouldEmitDebugInfo());
+        return new TypecheckExecutor().compile(config);
+    }
+
+    /** Replaces the contents of {@code file} with {@code contents}. */
+    public static void write(File file, String contents) throws IOException {
+        Files.write(file.toPath(), contents.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Returns the contents of {@code file}. */
+    public static String read(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,148 @@
+package tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static testlib.util.TemporarySources.read;
+import static testlib.util.TemporarySources.write;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import org.checkerframework.framework.test.CompilationResult;
+import org.checkerframework.framework.test.TestUtilities;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import testlib.util.TemporarySources;
+
+/**
+ * Tests that the baseline option skips the methods that did not change since their diagnostics were
+ * recorded, and checks the methods that did.
+ */
+public class BaselineTest {
+
+    private static final String USER =
+            "import testlib.util.*;\n"
+                    + "class BaselineUser {\n"
+                    + "    void bad(String s) {\n"
+                    + "        @Odd String o = s;\n"
+                    + "    }\n"
+                    + "    void call(@Odd String s) {\n"
+                    + "        @Odd String o = BaselineCallee.get(s);\n"
+                    + "    }\n"
+                    + "}\n";
+
+    private static final String CALLEE =
+            "import testlib.util.*;\n"
+                    + "class BaselineCallee {\n"
+                    + "    static @Odd String get(@Odd String s) {\n"
+                    + "        return s;\n"
+                    + "    }\n"
+                    + "}\n";
+
+    private static final List<String> BAD_ERROR =
+            Arrays.asList(":4: error: (assignment.type.incompatible)");
+
+    private static final List<String> CALL_ERROR =
+            Arrays.asList(":7: error: (assignment.type.incompatible)");
+
+    private TemporarySources sources;
+    private File user;
+    private File callee;
+    private File baseline;
+
+    @Before
+    public void setUp() throws IOException {
+        sources = new TemporarySources("baseline");
+        user = sources.getFile("BaselineUser.java");
+        callee = sources.getFile("BaselineCallee.java");
+        baseline = sources.getFile("baseline.txt");
+        write(user, USER);
+        write(callee, CALLEE);
+    }
+
+    @After
+    public void tearDown() {
+        sources.delete();
+    }
+
+    @Test
+    public void replaysUnchangedMethods() throws IOException {
+        assertEquals(BAD_ERROR, check());
+        String recorded = read(baseline);
+        assertTrue(recorded.contains("\nF\t"));
+        assertTrue(recorded.contains("\tBaselineUser.bad(java.lang.String)\t"));
+        assertTrue(recorded.contains("\tBaselineUser.call("));
+        assertTrue(recorded.contains("\nD\tERROR\tassignment.type.incompatible\t"));
+
+        assertEquals(BAD_ERROR, check());
+
+        // The method is not checked again, so without its recorded diagnostic it has none.
+        write(baseline, recorded.replaceAll("\nD\t[^\n]*", ""));
+        assertEquals(Collections.emptyList(), check());
+    }
+
+    @Test
+    public void dropBaselined() throws IOException {
+        assertEquals(BAD_ERROR, check());
+        assertEquals(Collections.emptyList(), check("-AdropBaselined"));
+        assertEquals(BAD_ERROR, check());
+    }
+
+    @Test
+    public void rechecksEditedMethods() throws IOException {
+        assertEquals(BAD_ERROR, check());
+        write(user, USER.replace("void bad(String s)", "void bad(@Odd String s)"));
+        assertEquals(Collections.emptyList(), check());
+        write(user, USER);
+        assertEquals(BAD_ERROR, check());
+    }
+
+    @Test
+    public void rechecksMethodsWhoseCalleesChanged() throws IOException {
+        assertEquals(BAD_ERROR, check());
+        write(callee, CALLEE.replace("static @Odd String", "static String"));
+        List<String> expected = new ArrayList<>(BAD_ERROR);
+        expected.addAll(CALL_ERROR);
+        assertEquals(expected, check());
+    }
+
+    @Test
+    public void discardsBaselineOfOtherOptions() throws IOException {
+        assertEquals(BAD_ERROR, check());
+        String recorded = read(baseline);
+        write(baseline, recorded.replaceAll("\nD\t[^\n]*", ""));
+
+        assertEquals(BAD_ERROR, check("-AassumeAssertionsAreEnabled"));
+        assertNotEquals(getFingerprint(recorded), getFingerprint(read(baseline)));
+    }
+
+    /** Checks the test files with the baseline option and returns the diagnostics. */
+    private List<String> check(String... options) {
+        List<String> allOptions = new ArrayList<>();
+        allOptions.add("-Abaseline=" + baseline.getPath());
+        allOptions.addAll(Arrays.asList(options));
+        CompilationResult result =
+                sources.check(
+                        Arrays.asList(user, callee),
+                        allOptions.toArray(new String[allOptions.size()]));
+        Set<String> diagnostics = TestUtilities.diagnosticsToStrings(result.getDiagnostics(), true);
+        assertEquals(diagnostics.isEmpty(), result.compiledWithoutError());
+        return new ArrayList<>(diagnostics);
+    }
+
+    /** Returns the fingerprint line of a baseline. */
+    private static String getFingerprint(String baseline) {
+        for (String line : baseline.split("\n")) {
+            if (line.startsWith("F\t")) {
+                return line;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,137 @@
+package tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static testlib.util.TemporarySources.read;
+import static testlib.util.TemporarySources.write;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import org.checkerframework.framework.test.CompilationResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import testlib.util.TemporarySources;
+
+/**
+ * Tests that the diagnosticsFile option writes the diagnostics of all compilation units to the file
+ * instead of reporting them through the compiler, and that the compilation still fails.
+ */
+public class DiagnosticsFileTest {
+
+    private static final String FIRST =
+            "import testlib.util.*;\n"
+                    + "class DiagnosticsFirst {\n"
+                    + "    void bad(String s) {\n"
+                    + "        @Odd String o = s;\n"
+                    + "    }\n"
+                    + "}\n";
+
+    private static final String SECOND =
+            "import testlib.util.*;\n"
+                    + "class DiagnosticsSecond {\n"
+                    + "    void bad(String s) {\n"
+                    + "        @Odd String o = s;\n"
+                    + "        @Odd String p = s;\n"
+                    + "    }\n"
+                    + "}\n";
+
+    private TemporarySources sources;
+    private File first;
+    private File second;
+    private File diagnostics;
+
+    @Before
+    public void setUp() throws IOException {
+        sources = new TemporarySources("diagnostics");
+        first = sources.getFile("DiagnosticsFirst.java");
+        second = sources.getFile("DiagnosticsSecond.java");
+        diagnostics = sources.getFile("diagnostics.txt");
+        write(first, FIRST);
+        write(second, SECOND);
+    }
+
+    @After
+    public void tearDown() {
+        sources.delete();
+    }
+
+    @Test
+    public void writesDiagnosticsOfAllCompilationUnits() throws IOException {
+        CompilationResult result = check();
+        assertFalse(result.compiledWithoutError());
+
+        List<String> expected =
+                Arrays.asList(
+                        "FlowTestChecker\tERROR\t"
+                                + first.getPath()
+                                + "\t4\tassignment.type.incompatible",
+                        "FlowTestChecker\tERROR\t"
+                                + second.getPath()
+                                + "\t4\tassignment.type.incompatible",
+                        "FlowTestChecker\tERROR\t"
+                                + second.getPath()
+                                + "\t5\tassignment.type.incompatible");
+        assertEquals(expected, readRecords());
+
+        // The diagnostics are not reported through the compiler, only their number is.
+        List<String> errors = new ArrayList<>();
+        for (Diagnostic<? extends JavaFileObject> diagnostic : result.getDiagnostics()) {
+            if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                errors.add(diagnostic.getMessage(null));
+            }
+        }
+        assertEquals(
+                Collections.singletonList(
+                        "3 errors and 0 warnings written to " + diagnostics.getPath()),
+                errors);
+    }
+
+    @Test
+    public void writesArguments() throws IOException {
+        check();
+        String record = read(diagnostics).split("\n")[0];
+        String[] fields = record.split("\t", -1);
+        // checker, kind, file, line, start, end, key, and the two types of the assignment.
+        assertEquals(9, fields.length);
+        assertEquals(FIRST.indexOf("s;\n"), Integer.parseInt(fields[4]));
+        assertEquals(FIRST.indexOf(";\n    }"), Integer.parseInt(fields[5]));
+    }
+
+    @Test
+    public void cleanRunEmptiesTheFile() throws IOException {
+        assertFalse(check().compiledWithoutError());
+        assertFalse(read(diagnostics).isEmpty());
+
+        write(first, FIRST.replace("bad(String s)", "bad(@Odd String s)"));
+        write(second, SECOND.replace("bad(String s)", "bad(@Odd String s)"));
+        assertTrue(check().compiledWithoutError());
+        assertEquals("", read(diagnostics));
+    }
+
+    /** Checks the test files with the diagnosticsFile option. */
+    private CompilationResult check() {
+        return sources.check(
+                Arrays.asList(first, second), "-AdiagnosticsFile=" + diagnostics.getPath());
+    }
+
+    /**
+     * Returns the checker, kind, file, line, and message key of each record in the diagnostics
+     * file.
+     */
+    private List<String> readRecords() throws IOException {
+        List<String> records = new ArrayList<>();
+        for (String line : read(diagnostics).split("\n")) {
+            String[] fields = line.split("\t", -1);
+            records.add(String.join("\t", fields[0], fields[1], fields[2], fields[3], fields[6]));
+        }
+        return records;
+    }
+}
@@ -0,0 +1,20 @@
+package tests;
+
+import java.io.File;
+import java.util.List;
+import org.checkerframework.framework.test.CheckerFrameworkPerDirectoryTest;
+import org.junit.runners.Parameterized.Parameters;
+import testlib.util.FlowTestChecker;
+
+/** Tests that code whose dataflow analysis exceeds the -AflowBudget limit uses declared types. */
+public class FlowBudgetTest extends CheckerFrameworkPerDirectoryTest {
+
+    public FlowBudgetTest(List<File> testFiles) {
+        super(testFiles, FlowTestChecker.class, "flow", "-Anomsgtext", "-AflowBudget=30");
+    }
+
+    @Parameters
+    public static String[] getTestDirs() {
+        return new String[] {"flowbudget"};
+    }
+}
@@ -0,0 +1,20 @@
+package tests;
+
+import java.io.File;
+import java.util.List;
+import org.checkerframework.framework.test.CheckerFrameworkPerDirectoryTest;
+import org.junit.runners.Parameterized.Parameters;
+import testlib.util.FlowTestChecker;
+
+/** Tests that calls to methods inferred to be side-effect-free keep refinements. */
+public class PurityInferenceTest extends CheckerFrameworkPerDirectoryTest {
+
+    public PurityInferenceTest(List<File> testFiles) {
+        super(testFiles, FlowTestChecker.class, "flow", "-Anomsgtext", "-AinferPurity");
+    }
+
+    @Parameters
+    public static String[] getTestDirs() {
+        return new String[] {"purityinference"};
+    }
+}
@@ -0,0 +1,138 @@
+package tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static testlib.util.TemporarySources.read;
+import static testlib.util.TemporarySources.write;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.checkerframework.framework.test.CompilationResult;
+import org.checkerframework.framework.test.TestConfigurationBuilder;
+import org.checkerframework.framework.test.TestUtilities;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import testlib.util.TemporarySources;
+
+/**
+ * Tests that the purity inferred while compiling a library is written to the puritySummaries file,
+ * and that the file supplies the purity of the library's methods when a client is compiled against
+ * the library's class files.
+ */
+public class PuritySummariesTest {
+
+    private static final String LIBRARY =
+            "class PurityLibrary {\n"
+                    + "    static int count;\n"
+                    + "    static boolean isEmpty(String s) {\n"
+                    + "        return s == null;\n"
+                    + "    }\n"
+                    + "    static void increment() {\n"
+                    + "        count++;\n"
+                    + "    }\n"
+                    + "    void use(String s) {\n"
+                    + "        isEmpty(s);\n"
+                    + "        increment();\n"
+                    + "    }\n"
+                    + "}\n";
+
+    private static final String CLIENT =
+            "import testlib.util.*;\n"
+                    + "class PurityClient {\n"
+                    + "    String f;\n"
+                    + "    void keepsRefinement(@Odd String p) {\n"
+                    + "        f = p;\n"
+                    + "        PurityLibrary.isEmpty(f);\n"
+                    + "        @Odd String r = f;\n"
+                    + "    }\n"
+                    + "    void losesRefinement(@Odd String p) {\n"
+                    + "        f = p;\n"
+                    + "        PurityLibrary.increment();\n"
+                    + "        @Odd String r = f;\n"
+                    + "    }\n"
+                    + "}\n";
+
+    private static final String KEEPS_ERROR = ":7: error: (assignment.type.incompatible)";
+
+    private static final String LOSES_ERROR = ":12: error: (assignment.type.incompatible)";
+
+    private TemporarySources sources;
+    private File library;
+    private File client;
+    private File summaries;
+
+    @Before
+    public void setUp() throws IOException {
+        sources = new TemporarySources("puritysummaries");
+        library = sources.getFile("PurityLibrary.java");
+        client = sources.getFile("PurityClient.java");
+        summaries = sources.getFile("purity.txt");
+        write(library, LIBRARY);
+        write(client, CLIENT);
+    }
+
+    @After
+    public void tearDown() {
+        sources.delete();
+    }
+
+    @Test
+    public void clientReadsSummariesOfLibrary() throws IOException {
+        compileLibrary();
+        List<String> lines = Arrays.asList(read(summaries).split("\\r?\\n"));
+        assertTrue(
+                lines.contains(
+                        "PurityLibrary.isEmpty(java.lang.String)\tSIDE_EFFECT_FREE,DETERMINISTIC"));
+        assertTrue(lines.contains("PurityLibrary.increment()\t"));
+
+        assertEquals(
+                Collections.singleton(LOSES_ERROR),
+                check(client, "-ApuritySummaries=" + summaries.getPath()));
+    }
+
+    @Test
+    public void clientWithoutSummaries() throws IOException {
+        compileLibrary();
+        assertEquals(new HashSet<>(Arrays.asList(KEEPS_ERROR, LOSES_ERROR)), check(client));
+    }
+
+    /**
+     * Compiles the library with the inferPurity and puritySummaries options, and deletes its source
+     * so that the client is compiled against its class file.
+     */
+    private void compileLibrary() {
+        assertEquals(
+                Collections.emptySet(),
+                check(library, "-AinferPurity", "-ApuritySummaries=" + summaries.getPath()));
+        assertTrue(summaries.exists());
+        assertTrue(library.delete());
+    }
+
+    /**
+     * Checks {@code source}, with the temporary directory as output directory and on the class
+     * path, and returns the diagnostics.
+     */
+    private Set<String> check(File source, String... options) {
+        String dir = sources.getDirectory().getPath();
+        List<String> allOptions = new ArrayList<>();
+        allOptions.add("-d");
+        allOptions.add(dir);
+        allOptions.add("-classpath");
+        allOptions.add(dir + File.pathSeparator + TestConfigurationBuilder.getDefaultClassPath());
+        allOptions.addAll(Arrays.asList(options));
+        CompilationResult result =
+                sources.check(
+                        Collections.singletonList(source),
+                        allOptions.toArray(new String[allOptions.size()]));
+        Set<String> diagnostics = TestUtilities.diagnosticsToStrings(result.getDiagnostics(), true);
+        assertEquals(diagnostics.isEmpty(), result.compiledWithoutError());
+        return diagnostics;
+    }
+}
@@ -0,0 +1,24 @@
+package tests;
+
+import java.io.File;
+import java.util.List;
+import org.checkerframework.framework.test.CheckerFrameworkPerDirectoryTest;
+import org.junit.runners.Parameterized.Parameters;
+
+/** Test suite for string patterns that declare the same named group. */
+public class SubtypingStringPatternsNamedTest extends CheckerFrameworkPerDirectoryTest {
+
+    public SubtypingStringPatternsNamedTest(List<File> testFiles) {
+        super(
+                testFiles,
+                org.checkerframework.common.subtyping.SubtypingChecker.class,
+                "stringpatterns/stringpatterns-named",
+                "-Anomsgtext",
+                "-Aquals=testlib.util.PatternUnknown,testlib.util.PatternNamedA,testlib.util.PatternNamedB,testlib.util.PatternBottomNamed");
+    }
+
+    @Parameters
+    public static String[] getTestDirs() {
+        return new String[] {"stringpatterns/stringpatterns-named", "all-systems"};
+    }
+}
@@ -0,0 +1,25 @@
+import testlib.util.*;
+
+// Test case for string patterns that declare the same named group, which cannot be
+// combined into a single alternation.
+public class NamedGroupPatterns {
+
+    void requiresA(@PatternNamedA String arg) {}
+
+    void requiresB(@PatternNamedB String arg) {}
+
+    void m() {
+        requiresA("A");
+        //:: error: (argument.type.incompatible)
+        requiresB("A");
+
+        //:: error: (argument.type.incompatible)
+        requiresA("B");
+        requiresB("B");
+
+        //:: error: (argument.type.incompatible)
+        requiresA("C");
+        //:: error: (argument.type.incompatible)
+        requiresB("C");
+    }
+}
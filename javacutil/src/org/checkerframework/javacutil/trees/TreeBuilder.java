@@ -21,7 +21,9 @@ import com.sun.tools.javac.tree.TreeInfo;
 import com.sun.tools.javac.tree.TreeMaker;
 import com.sun.tools.javac.util.Context;
 import com.sun.tools.javac.util.Names;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ExecutableElement;
@@ -41,6 +43,10 @@ import org.checkerframework.javacutil.TypesUtils;
 /**
  * The TreeBuilder permits the creation of new AST Trees using the non-public Java compiler API
  * TreeMaker.
+ *
+ * <p>A TreeBuilder remembers the methods it looked up, such as the valueOf method of a boxed type,
+ * so a client that builds many trees, such as the control flow graph builder for a large method,
+ * should use one TreeBuilder for all of them.
  */
 public class TreeBuilder {
     protected final Elements elements;
@@ -51,6 +57,12 @@ public class TreeBuilder {
     protected final Symtab symtab;
     protected final ProcessingEnvironment env;
 
+    /** The methods of the types that were looked up; see {@link #getAllMethods}. */
+    private final Map<TypeElement, List<ExecutableElement>> allMethods = new HashMap<>();
+
+    /** The valueOf methods of the boxed types that were looked up. */
+    private final Map<TypeElement, Symbol.MethodSymbol> valueOfMethods = new HashMap<>();
+
     public TreeBuilder(ProcessingEnvironment env) {
         this.env = env;
         Context context = ((JavacProcessingEnvironment) env).getContext();
@@ -78,8 +90,7 @@ public class TreeBuilder {
         // Find the iterator() method of the iterable type
         Symbol.MethodSymbol iteratorMethod = null;
 
-        for (ExecutableElement method :
-                ElementFilter.methodsIn(elements.getAllMembers(exprElement))) {
+        for (ExecutableElement method : getAllMethods(exprElement)) {
             Name methodName = method.getSimpleName();
 
             if (method.getParameters().size() == 0) {
@@ -140,8 +151,7 @@ public class TreeBuilder {
         // Find the hasNext() method of the iterator type
         Symbol.MethodSymbol hasNextMethod = null;
 
-        for (ExecutableElement method :
-                ElementFilter.methodsIn(elements.getAllMembers(exprElement))) {
+        for (ExecutableElement method : getAllMethods(exprElement)) {
             Name methodName = method.getSimpleName();
 
             if (method.getParameters().size() == 0) {
@@ -176,8 +186,7 @@ public class TreeBuilder {
         // Find the next() method of the iterator type
         Symbol.MethodSymbol nextMethod = null;
 
-        for (ExecutableElement method :
-                ElementFilter.methodsIn(elements.getAllMembers(exprElement))) {
+        for (ExecutableElement method : getAllMethods(exprElement)) {
             Name methodName = method.getSimpleName();
 
             if (method.getParameters().size() == 0) {
@@ -215,6 +224,20 @@ public class TreeBuilder {
         return nextAccess;
     }
 
+    /**
+     * Returns the methods of {@code type}, including inherited ones, as returned by {@link
+     * Elements#getAllMembers}. Computing all members of a type copies them, so the result is
+     * remembered.
+     */
+    private List<ExecutableElement> getAllMethods(TypeElement type) {
+        List<ExecutableElement> methods = allMethods.get(type);
+        if (methods == null) {
+            methods = ElementFilter.methodsIn(elements.getAllMembers(type));
+            allMethods.put(type, methods);
+        }
+        return methods;
+    }
+
     /**
      * Builds an AST Tree to dereference the length field of an array
      *
@@ -400,7 +423,12 @@ public class TreeBuilder {
         assert TypesUtils.isBoxedPrimitive(boxedType);
 
         // Find the valueOf(unboxedType) method of the boxed type
-        Symbol.MethodSymbol valueOfMethod = getValueOfMethod(env, boxedType);
+        TypeElement boxedElement = (TypeElement) ((DeclaredType) boxedType).asElement();
+        Symbol.MethodSymbol valueOfMethod = valueOfMethods.get(boxedElement);
+        if (valueOfMethod == null) {
+            valueOfMethod = getValueOfMethod(env, boxedType);
+            valueOfMethods.put(boxedElement, valueOfMethod);
+        }
 
         Type.MethodType methodType = (Type.MethodType) valueOfMethod.asType();
 
@@ -453,8 +481,7 @@ public class TreeBuilder {
         String primValueName = unboxedType.toString() + "Value";
         Symbol.MethodSymbol primValueMethod = null;
 
-        for (ExecutableElement method :
-                ElementFilter.methodsIn(elements.getAllMembers(boxedElement))) {
+        for (ExecutableElement method : getAllMethods(boxedElement)) {
             Name methodName = method.getSimpleName();
 
             if (methodName.contentEquals(primValueName) && method.getParameters().size() == 0) {
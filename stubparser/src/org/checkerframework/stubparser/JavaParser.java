@@ -84,6 +84,21 @@ public final class JavaParser {
         return new ASTParser(in, encoding).IndexUnit();
     }
 
+    /**
+     * Parses the Java code contained in the {@link InputStream} with a new
+     * parser instance, regardless of the parser cache, and returns 
+     * a {@link CompilationUnit} that represents it. 
+     * Unlike the other parse methods, this method can be called by several
+     * threads at the same time.
+     * @param in {@link InputStream} containing Java source code
+     * @param encoding encoding of the source code
+     * @return CompilationUnit representing the Java source code
+     * @throws ParseException if the source code has parser errors
+     */
+    public static IndexUnit parseWithNewParser(InputStream in, String encoding) throws ParseException {
+        return new ASTParser(in, encoding).IndexUnit();
+    }
+
     /**
      * Parses the Java code contained in the {@link InputStream} and returns 
      * a {@link CompilationUnit} that represents it. 